@@ -0,0 +1,57 @@
+/**
+ * Solves mazes with A* search, using the Manhattan distance to the goal as
+ * the heuristic. Since every step moves one location, that distance never
+ * overestimates, so the path found is always a shortest one. When the goal
+ * is close to the start, only a small part of a large maze is expanded.
+ */
+public class AStarSolver implements MazeSolver {
+
+	/** Reached locations, their predecessors and their distances from start. */
+	private final SearchState state = new SearchState();
+
+	/** Locations to expand, each with the estimated total length of a path through it as its priority. */
+	private final MinHeap heap = new MinHeap();
+
+	@Override
+	public MazeSolution solve(MazeGrid grid, int[] start, int[] goal) {
+		int startCell = grid.cell(start[Maze.X], start[Maze.Y]);
+		int goalCell = grid.cell(goal[Maze.X], goal[Maze.Y]);
+		int goalX = goal[Maze.X];
+		int goalY = goal[Maze.Y];
+		state.reset(grid.getCellCount());
+		state.reachOrigin(startCell);
+		heap.clear();
+		heap.push(Math.abs(start[Maze.X] - goalX) + Math.abs(start[Maze.Y] - goalY), startCell);
+		int expanded = 0;
+		int maxHeapSize = 1;
+		while (!heap.isEmpty()) {
+			long entry = heap.pop();
+			int here = MinHeap.numberOf(entry);
+			int x = grid.cellX(here);
+			int y = grid.cellY(here);
+			int g = state.distanceTo(here);
+			if (MinHeap.priorityOf(entry) != g + Math.abs(x - goalX) + Math.abs(y - goalY)) {
+				// A shorter way to here was found after this entry was added
+				continue;
+			}
+			expanded++;
+			if (here == goalCell) {
+				return MazeMetrics.solved(this, MazeSolution.of(state.mazePathTo(grid, goalCell), expanded), 0,
+						maxHeapSize);
+			}
+			for (int d = 0; d < 4; d++) {
+				if (grid.hasPassage(x, y, d)) {
+					int nextX = x + Maze.OFFSETS[d][Maze.X];
+					int nextY = y + Maze.OFFSETS[d][Maze.Y];
+					int next = grid.cell(nextX, nextY);
+					if (!state.isReached(next) || g + 1 < state.distanceTo(next)) {
+						state.reach(next, here);
+						heap.push(g + 1 + Math.abs(nextX - goalX) + Math.abs(nextY - goalY), next);
+					}
+				}
+			}
+			maxHeapSize = Math.max(maxHeapSize, heap.size());
+		}
+		return MazeMetrics.solved(this, new MazeSolution(null, expanded), 0, maxHeapSize);
+	}
+}
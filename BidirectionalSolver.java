@@ -0,0 +1,115 @@
+import java.util.Arrays;
+
+/**
+ * Solves mazes with two breadth-first searches, one from start and one from
+ * goal, that each expand a whole level at a time (always on the side with
+ * the smaller frontier) until they meet. The path found is a shortest one,
+ * and when start and goal are close together far fewer locations are
+ * expanded than by a single search.
+ */
+public class BidirectionalSolver implements MazeSolver {
+
+	/** One of the two searches. */
+	private static class Side {
+
+		/** Reached locations, their predecessors and distances. */
+		final SearchState state = new SearchState();
+
+		/** Cell numbers of reached locations, in the order they were reached. */
+		int[] queue = new int[16];
+
+		/** Index in queue of the next location to expand. */
+		int head;
+
+		/** Number of valid elements in queue. */
+		int tail;
+
+		/** Starts a new search of grid from cell. */
+		void reset(MazeGrid grid, int cell) {
+			state.reset(grid.getCellCount());
+			state.reachOrigin(cell);
+			queue[0] = cell;
+			head = 0;
+			tail = 1;
+		}
+	}
+
+	/** The search from start. */
+	private final Side forward = new Side();
+
+	/** The search from goal. */
+	private final Side backward = new Side();
+
+	/** The cell where the best path found so far passes from one side to the other. */
+	private int meeting;
+
+	/** The length (in steps) of the best path found so far. */
+	private int meetingLength;
+
+	@Override
+	public MazeSolution solve(MazeGrid grid, int[] start, int[] goal) {
+		int startCell = grid.cell(start[Maze.X], start[Maze.Y]);
+		int goalCell = grid.cell(goal[Maze.X], goal[Maze.Y]);
+		forward.reset(grid, startCell);
+		backward.reset(grid, goalCell);
+		meeting = startCell == goalCell ? startCell : -1;
+		meetingLength = 0;
+		int expanded = 0;
+		int maxQueued = 2;
+		while (meeting < 0 && forward.head < forward.tail && backward.head < backward.tail) {
+			if (forward.tail - forward.head <= backward.tail - backward.head) {
+				expanded += expandLevel(grid, forward, backward);
+			} else {
+				expanded += expandLevel(grid, backward, forward);
+			}
+			maxQueued = Math.max(maxQueued, forward.tail - forward.head + backward.tail - backward.head);
+		}
+		if (meeting < 0) {
+			return MazeMetrics.solved(this, new MazeSolution(null, expanded), 0, maxQueued);
+		}
+		// Join the path from start to the meeting point with the path from
+		// there back to goal
+		int[][] path = Arrays.copyOf(forward.state.pathTo(grid, meeting), meetingLength + 1);
+		int cell = meeting;
+		for (int i = forward.state.distanceTo(meeting) + 1; i < path.length; i++) {
+			cell = backward.state.parentOf(cell);
+			path[i] = new int[] { grid.cellX(cell), grid.cellY(cell) };
+		}
+		return MazeMetrics.solved(this, new MazeSolution(path, expanded), 0, maxQueued);
+	}
+
+	/**
+	 * Expands every location in the current level of side, recording in
+	 * meeting the best place (if any) where side reaches a location already
+	 * reached by other. Returns the number of locations expanded.
+	 */
+	private int expandLevel(MazeGrid grid, Side side, Side other) {
+		int levelEnd = side.tail;
+		int expanded = levelEnd - side.head;
+		while (side.head < levelEnd) {
+			int here = side.queue[side.head];
+			side.head++;
+			int x = grid.cellX(here);
+			int y = grid.cellY(here);
+			for (int d = 0; d < 4; d++) {
+				if (side.state.canEnter(grid, x, y, d)) {
+					int next = grid.cell(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y]);
+					side.state.reach(next, here);
+					if (side.tail == side.queue.length) {
+						side.queue = Arrays.copyOf(side.queue, side.tail * 2);
+					}
+					side.queue[side.tail] = next;
+					side.tail++;
+					if (other.state.isReached(next)) {
+						int length = side.state.distanceTo(next) + other.state.distanceTo(next);
+						if (meeting < 0 || length < meetingLength) {
+							meeting = next;
+							meetingLength = length;
+						}
+					}
+				}
+			}
+		}
+		return expanded;
+	}
+}
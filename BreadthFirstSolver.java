@@ -0,0 +1,45 @@
+import java.util.Arrays;
+
+/** Solves mazes breadth first, so the path found is always a shortest one. */
+public class BreadthFirstSolver implements MazeSolver {
+
+	/** Reached locations and their predecessors. */
+	private final SearchState state = new SearchState();
+
+	/** Cell numbers of reached locations, in the order they were reached. */
+	private int[] queue = new int[16];
+
+	@Override
+	public MazeSolution solve(MazeGrid grid, int[] start, int[] goal) {
+		int startCell = grid.cell(start[Maze.X], start[Maze.Y]);
+		int goalCell = grid.cell(goal[Maze.X], goal[Maze.Y]);
+		state.reset(grid.getCellCount());
+		state.reachOrigin(startCell);
+		queue[0] = startCell;
+		int head = 0;
+		int tail = 1;
+		int maxQueued = 1;
+		while (head < tail) {
+			int here = queue[head];
+			head++;
+			if (here == goalCell) {
+				return MazeMetrics.solved(this, MazeSolution.of(state.mazePathTo(grid, goalCell), head), 0, maxQueued);
+			}
+			int x = grid.cellX(here);
+			int y = grid.cellY(here);
+			for (int d = 0; d < 4; d++) {
+				if (state.canEnter(grid, x, y, d)) {
+					int next = grid.cell(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y]);
+					state.reach(next, here);
+					if (tail == queue.length) {
+						queue = Arrays.copyOf(queue, tail * 2);
+					}
+					queue[tail] = next;
+					tail++;
+				}
+			}
+			maxQueued = Math.max(maxQueued, tail - head);
+		}
+		return MazeMetrics.solved(this, new MazeSolution(null, head), 0, maxQueued);
+	}
+}
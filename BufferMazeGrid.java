@@ -0,0 +1,91 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A MazeGrid whose bits live in direct ByteBuffers outside the heap, such as
+ * the memory-mapped regions of a file written by MazeFile. Since a single
+ * buffer holds at most 2 GB, the words are split into chunks of CHUNK_BYTES,
+ * and word indexes are longs throughout.
+ */
+public class BufferMazeGrid extends MazeGrid {
+
+	/** log2 of the number of bytes in every chunk but the last. */
+	static final int CHUNK_SHIFT = 30;
+
+	/** The number of bytes in every chunk but the last. */
+	static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+
+	/** Atomic access to longs in a ByteBuffer. */
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+
+	/** The words of passage bits, in little-endian order, CHUNK_BYTES at a time. */
+	private final ByteBuffer[] chunks;
+
+	/**
+	 * Creates a width by height maze whose bits are in chunks. Every chunk but
+	 * the last must hold exactly CHUNK_BYTES bytes, and together they must hold
+	 * getWordCount(width, height) words.
+	 */
+	BufferMazeGrid(int width, int height, ByteBuffer[] chunks) {
+		super(width, height, null);
+		long bytes = 0;
+		for (int i = 0; i < chunks.length; i++) {
+			if (i + 1 < chunks.length && chunks[i].capacity() != CHUNK_BYTES) {
+				throw new IllegalArgumentException("Chunk " + i + " holds " + chunks[i].capacity() + " bytes");
+			}
+			chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+			bytes += chunks[i].capacity();
+		}
+		if (bytes < getWordCount() * Long.BYTES) {
+			throw new IllegalArgumentException("Chunks hold " + bytes + " bytes, but the maze needs "
+					+ getWordCount() * Long.BYTES);
+		}
+		this.chunks = chunks;
+	}
+
+	/**
+	 * Returns a width by height maze with no passages whose bits are in newly
+	 * allocated direct buffers. Since cell numbers are not needed to address
+	 * the bits, the maze may have more than Integer.MAX_VALUE locations, as
+	 * long as there is enough memory outside the heap for them; fill it with
+	 * an EllerGenerator and solve it with a LargeMazeSolver.
+	 */
+	public static BufferMazeGrid allocate(int width, int height) {
+		checkDimensions(width, height);
+		long bytes = getWordCount(width, height) * Long.BYTES;
+		ByteBuffer[] chunks = new ByteBuffer[getChunkCount(bytes)];
+		for (int i = 0; i < chunks.length; i++) {
+			chunks[i] = ByteBuffer.allocateDirect((int) Math.min(CHUNK_BYTES, bytes - i * CHUNK_BYTES));
+		}
+		return new BufferMazeGrid(width, height, chunks);
+	}
+
+	/**
+	 * Returns the number of chunks needed to hold the given number of bytes,
+	 * and so the number of buffers a BufferMazeGrid needs.
+	 */
+	static int getChunkCount(long bytes) {
+		return (int) ((bytes + CHUNK_BYTES - 1) >>> CHUNK_SHIFT);
+	}
+
+	@Override
+	protected long getWord(long index) {
+		long offset = index * Long.BYTES;
+		return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & (CHUNK_BYTES - 1)));
+	}
+
+	@Override
+	protected void setWord(long index, long word) {
+		long offset = index * Long.BYTES;
+		chunks[(int) (offset >>> CHUNK_SHIFT)].putLong((int) (offset & (CHUNK_BYTES - 1)), word);
+	}
+
+	@Override
+	protected void orWordConcurrently(long index, long mask) {
+		long offset = index * Long.BYTES;
+		LONGS.getAndBitwiseOr(chunks[(int) (offset >>> CHUNK_SHIFT)], (int) (offset & (CHUNK_BYTES - 1)), mask);
+	}
+}
@@ -0,0 +1,100 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A union-find forest over the numbers 0 to size - 1 that any number of
+ * threads can use at once without locks. Each number has a fixed priority, a
+ * pseudo-random permutation of the numbers, and roots are only ever linked
+ * under roots of higher priority, so each set is a tree whose root is its
+ * member of highest priority. Linking by a random order keeps the trees
+ * shallow much as linking by rank or size does, without a second array that
+ * would have to change atomically with the first: together with path
+ * halving, the expected time of a run of operations is nearly linear in
+ * their number, as with linking by rank (Jayanti and Tarjan). The link is
+ * a compare-and-set that fails if the root has meanwhile been linked by
+ * another thread, in which case the union is retried. Finds halve the path
+ * they walk, also with compare-and-set, so a lost race only means that path
+ * is not shortened.
+ */
+class ConcurrentUnionFind {
+
+	/** Atomic access to the elements of parent. */
+	private static final VarHandle PARENTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+	/** parent[i] is i's parent, or i if i is a root. */
+	private final int[] parent;
+
+	/** Creates a forest in which each number from 0 to size - 1 is in a set of its own. */
+	ConcurrentUnionFind(int size) {
+		parent = new int[size];
+		for (int i = 0; i < size; i++) {
+			parent[i] = i;
+		}
+	}
+
+	/** Returns the root of i's set, halving the path to it. */
+	int find(int i) {
+		while (true) {
+			int p = (int) PARENTS.getVolatile(parent, i);
+			if (p == i) {
+				return i;
+			}
+			int grandparent = (int) PARENTS.getVolatile(parent, p);
+			if (grandparent != p) {
+				PARENTS.compareAndSet(parent, i, p, grandparent);
+			}
+			i = grandparent;
+		}
+	}
+
+	/**
+	 * Merges the sets containing a and b. Returns true if they were different
+	 * sets, in which case this call is the one that merged them; if several
+	 * threads try to merge the same two sets at once, exactly one returns true.
+	 */
+	boolean union(int a, int b) {
+		while (true) {
+			a = find(a);
+			b = find(b);
+			if (a == b) {
+				return false;
+			}
+			if (priority(a) > priority(b)) {
+				int t = a;
+				a = b;
+				b = t;
+			}
+			// a is now the root of lower priority; link it under b unless it has just stopped being a root
+			if (PARENTS.compareAndSet(parent, a, a, b)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the priority of i. This is a bijection on ints (the finalizer
+	 * of MurmurHash3), so no two numbers share a priority.
+	 */
+	private static int priority(int i) {
+		i ^= i >>> 16;
+		i *= 0x85ebca6b;
+		i ^= i >>> 13;
+		i *= 0xc2b2ae35;
+		return i ^ (i >>> 16);
+	}
+
+	/** Returns true if a and b are in the same set. */
+	boolean isSameSet(int a, int b) {
+		while (true) {
+			a = find(a);
+			b = find(b);
+			if (a == b) {
+				return true;
+			}
+			// a may have been linked under another root since it was found
+			if ((int) PARENTS.getVolatile(parent, a) == a) {
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+import java.util.Arrays;
+
+/**
+ * Solves mazes depth first, trying directions in the same order as the
+ * original recursive Maze.solve: NORTH, EAST, SOUTH, WEST. The stack lives on
+ * the heap, so long corridors cannot overflow the call stack.
+ */
+public class DepthFirstSolver implements MazeSolver {
+
+	/** Reached locations and their predecessors. */
+	private final SearchState state = new SearchState();
+
+	/** Cell numbers of the locations on the current path. */
+	private int[] stack = new int[16];
+
+	/** directions[i] is the next direction to try from stack[i]. */
+	private byte[] directions = new byte[16];
+
+	@Override
+	public MazeSolution solve(MazeGrid grid, int[] start, int[] goal) {
+		return solve((PassageLookup) grid, start, goal);
+	}
+
+	/**
+	 * Like solve above, but follows the passages maze reports, which need not
+	 * be two-way.
+	 */
+	MazeSolution solve(PassageLookup maze, int[] start, int[] goal) {
+		int height = maze.getHeight();
+		int startCell = start[Maze.X] * height + start[Maze.Y];
+		int goalCell = goal[Maze.X] * height + goal[Maze.Y];
+		state.reset(maze.getCellCount());
+		state.reachOrigin(startCell);
+		stack[0] = startCell;
+		directions[0] = 0;
+		int size = 1;
+		int expanded = 1;
+		int backtracks = 0;
+		int maxSize = 1;
+		while (size > 0) {
+			int here = stack[size - 1];
+			if (here == goalCell) {
+				MazeSolution solution = maze instanceof MazeGrid grid
+						? MazeSolution.of(state.mazePathTo(grid, goalCell), expanded)
+						: new MazeSolution(state.pathTo(maze, goalCell), expanded);
+				return MazeMetrics.solved(this, solution, backtracks, maxSize);
+			}
+			int x = here / height;
+			int y = here % height;
+			int d = directions[size - 1];
+			while (d < 4 && !state.canEnter(maze, x, y, d)) {
+				d++;
+			}
+			if (d < 4) {
+				// Step forward to the neighbor in direction d
+				directions[size - 1] = (byte) (d + 1);
+				int next = (x + Maze.OFFSETS[d][Maze.X]) * height + y + Maze.OFFSETS[d][Maze.Y];
+				state.reach(next, here);
+				if (size == stack.length) {
+					stack = Arrays.copyOf(stack, size * 2);
+					directions = Arrays.copyOf(directions, size * 2);
+				}
+				stack[size] = next;
+				directions[size] = 0;
+				size++;
+				expanded++;
+				maxSize = Math.max(maxSize, size);
+			} else {
+				// Nope -- we can't get there from here
+				size--;
+				backtracks++;
+			}
+		}
+		return MazeMetrics.solved(this, new MazeSolution(null, expanded), backtracks, maxSize);
+	}
+}
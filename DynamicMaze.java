@@ -0,0 +1,457 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A maze whose passages can be opened and closed one at a time while routes
+ * through it are in use. It keeps track of which locations are connected, so
+ * isConnected takes O(1) time, and it keeps every open Route's path valid.
+ *
+ * <p>
+ * Opening a passage merges two groups of connected locations by relabeling
+ * the smaller one. Closing a passage searches outward from both of its ends
+ * at once, one location at a time from each, and stops as soon as the two
+ * searches meet or one runs out; if one runs out, its locations are split off
+ * into a new group. Either way the work is proportional to the smaller side.
+ * When a closed passage lies on a route's path, only the broken segment is
+ * searched again: a breadth first search from the location just before the
+ * break, which may not revisit the part of the path before it, finds the
+ * nearest location on the rest of the path and splices the detour in. Only
+ * if that fails, and the ends are still connected, is the whole route solved
+ * again. Opened passages never break a path, so routes are left as they are,
+ * and so may no longer be the shortest ones.
+ *
+ * <p>
+ * All changes to the grid must go through this class. A DynamicMaze is not
+ * safe to share between threads.
+ */
+public class DynamicMaze {
+
+	/** The maze being changed. */
+	private final MazeGrid grid;
+
+	/** component[c] labels the group of locations connected to c. */
+	private final int[] component;
+
+	/** componentSize[l] is the number of locations labeled l. */
+	private final int[] componentSize;
+
+	/** The labels not in use, freeLabels[0] to freeLabels[freeCount - 1]. */
+	private final int[] freeLabels;
+
+	/** The number of labels not in use. */
+	private int freeCount;
+
+	/**
+	 * While closing a passage, seen[c] is epoch if the search from one end has
+	 * reached c, and epoch + 1 if the search from the other end has.
+	 */
+	private final int[] seen;
+
+	/** Identifies the current pair of searches; always even. */
+	private int epoch;
+
+	/** The locations reached by each of the two searches, in the order they were reached. */
+	private final int[][] queues = { new int[16], new int[16] };
+
+	/** The number of locations each of the two searches has expanded. */
+	private final int[] heads = new int[2];
+
+	/** The number of locations each of the two searches has reached. */
+	private final int[] tails = new int[2];
+
+	/** Reached locations and their predecessors, for solving and repairing routes. */
+	private final SearchState state = new SearchState();
+
+	/** Cell numbers of locations reached while solving or repairing a route. */
+	private int[] queue = new int[16];
+
+	/** The routes whose paths are kept up to date. */
+	private final List<Route> routes = new ArrayList<>();
+
+	/** The number of locations examined by the last change. */
+	private int lastChangeCost;
+
+	/** Creates a DynamicMaze for grid, labeling its connected groups of locations. */
+	public DynamicMaze(MazeGrid grid) {
+		this.grid = grid;
+		int cells = grid.getCellCount();
+		component = new int[cells];
+		componentSize = new int[cells];
+		freeLabels = new int[cells];
+		seen = new int[cells];
+		Arrays.fill(component, -1);
+		int labels = 0;
+		for (int cell = 0; cell < cells; cell++) {
+			if (component[cell] < 0) {
+				componentSize[labels] = relabel(cell, -1, labels);
+				labels++;
+			}
+		}
+		for (int label = cells - 1; label >= labels; label--) {
+			freeLabels[freeCount] = label;
+			freeCount++;
+		}
+	}
+
+	/** Returns the maze being changed, which must not be changed except through this object. */
+	public MazeGrid getGrid() {
+		return grid;
+	}
+
+	/** Returns true if there is a path between locations a and b. */
+	public boolean isConnected(int[] a, int[] b) {
+		return component[grid.cell(a[Maze.X], a[Maze.Y])] == component[grid.cell(b[Maze.X], b[Maze.Y])];
+	}
+
+	/** Returns the number of groups of connected locations; 1 if every location can reach every other. */
+	public int getComponentCount() {
+		return component.length - freeCount;
+	}
+
+	/**
+	 * Returns the number of locations examined by the last call to
+	 * addPassage or removePassage, counting those examined while keeping
+	 * routes up to date.
+	 */
+	public int getLastChangeCost() {
+		return lastChangeCost;
+	}
+
+	/**
+	 * Opens the passage between location x, y and its neighbor in direction.
+	 * Returns false, and does nothing, if the passage was already open.
+	 * Throws an exception if that neighbor is outside the maze.
+	 */
+	public boolean addPassage(int x, int y, int direction) {
+		if (grid.hasPassage(x, y, direction)) {
+			return false;
+		}
+		grid.addPassage(x, y, direction);
+		lastChangeCost = 0;
+		int a = grid.cell(x, y);
+		int b = grid.cell(x + Maze.OFFSETS[direction][Maze.X], y + Maze.OFFSETS[direction][Maze.Y]);
+		int labelA = component[a];
+		int labelB = component[b];
+		if (labelA == labelB) {
+			return true;
+		}
+		// Relabel the smaller group as part of the larger one
+		int smaller = a;
+		if (componentSize[labelA] > componentSize[labelB]) {
+			smaller = b;
+			int label = labelA;
+			labelA = labelB;
+			labelB = label;
+		}
+		int size = relabel(smaller, labelA, labelB);
+		lastChangeCost += size;
+		componentSize[labelB] += size;
+		componentSize[labelA] = 0;
+		freeLabels[freeCount] = labelA;
+		freeCount++;
+		for (Route route : routes) {
+			if (route.cells == null && component[route.startCell] == component[route.goalCell]) {
+				solve(route);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Closes the passage between location x, y and its neighbor in direction,
+	 * and repairs the paths of routes that used it. Returns false, and does
+	 * nothing, if the passage was already closed. Throws an exception if that
+	 * neighbor is outside the maze.
+	 */
+	public boolean removePassage(int x, int y, int direction) {
+		if (!grid.hasPassage(x, y, direction)) {
+			return false;
+		}
+		grid.removePassage(x, y, direction);
+		lastChangeCost = 0;
+		int a = grid.cell(x, y);
+		int b = grid.cell(x + Maze.OFFSETS[direction][Maze.X], y + Maze.OFFSETS[direction][Maze.Y]);
+		split(a, b);
+		for (Route route : routes) {
+			int positionA = route.position[a];
+			int positionB = route.position[b];
+			if (positionA >= 0 && positionB >= 0 && Math.abs(positionA - positionB) == 1) {
+				repair(route, Math.min(positionA, positionB));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a Route from start to goal, whose path is kept up to date as
+	 * passages are opened and closed until the route is closed. Each open
+	 * route takes an int per location in the maze.
+	 */
+	public Route route(int[] start, int[] goal) {
+		Route route = new Route(grid.cell(start[Maze.X], start[Maze.Y]), grid.cell(goal[Maze.X], goal[Maze.Y]));
+		solve(route);
+		routes.add(route);
+		return route;
+	}
+
+	/**
+	 * Labels every location connected to cell and currently labeled from as
+	 * to, and returns the number of locations labeled.
+	 */
+	private int relabel(int cell, int from, int to) {
+		component[cell] = to;
+		queue[0] = cell;
+		int head = 0;
+		int tail = 1;
+		while (head < tail) {
+			int here = queue[head];
+			head++;
+			int x = grid.cellX(here);
+			int y = grid.cellY(here);
+			for (int d = 0; d < 4; d++) {
+				if (grid.hasPassage(x, y, d)) {
+					int next = grid.cell(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y]);
+					if (component[next] == from) {
+						component[next] = to;
+						if (tail == queue.length) {
+							queue = Arrays.copyOf(queue, tail * 2);
+						}
+						queue[tail] = next;
+						tail++;
+					}
+				}
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Called when the passage between a and b has just been closed. Searches
+	 * from both at once, and if they are no longer connected, gives the
+	 * locations on the side that ran out first a new label.
+	 */
+	private void split(int a, int b) {
+		epoch += 2;
+		if (epoch < 0) {
+			// The epoch has wrapped around, so old marks could look current
+			Arrays.fill(seen, 0);
+			epoch = 2;
+		}
+		int[] origins = { a, b };
+		for (int side = 0; side < 2; side++) {
+			seen[origins[side]] = epoch + side;
+			queues[side][0] = origins[side];
+			heads[side] = 0;
+			tails[side] = 1;
+		}
+		int side = 0;
+		while (heads[side] < tails[side]) {
+			if (!expand(side)) {
+				lastChangeCost += heads[0] + heads[1];
+				return;
+			}
+			side = 1 - side;
+		}
+		lastChangeCost += heads[0] + heads[1];
+		int old = component[a];
+		freeCount--;
+		int label = freeLabels[freeCount];
+		int[] reached = queues[side];
+		for (int i = 0; i < tails[side]; i++) {
+			component[reached[i]] = label;
+		}
+		componentSize[label] = tails[side];
+		componentSize[old] -= tails[side];
+	}
+
+	/**
+	 * Expands the next location reached by the search from one end of a
+	 * closed passage. Returns false if it reaches a location the other search
+	 * has reached.
+	 */
+	private boolean expand(int side) {
+		int here = queues[side][heads[side]];
+		heads[side]++;
+		int x = grid.cellX(here);
+		int y = grid.cellY(here);
+		for (int d = 0; d < 4; d++) {
+			if (grid.hasPassage(x, y, d)) {
+				int next = grid.cell(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y]);
+				if (seen[next] == epoch + 1 - side) {
+					return false;
+				}
+				if (seen[next] != epoch + side) {
+					seen[next] = epoch + side;
+					if (tails[side] == queues[side].length) {
+						queues[side] = Arrays.copyOf(queues[side], tails[side] * 2);
+					}
+					queues[side][tails[side]] = next;
+					tails[side]++;
+				}
+			}
+		}
+		return true;
+	}
+
+	/** Finds a new path for route from scratch. */
+	private void solve(Route route) {
+		route.setCells(null, 0);
+		if (component[route.startCell] != component[route.goalCell]) {
+			return;
+		}
+		int found = search(route, route.startCell, 0);
+		int[] cells = new int[state.distanceTo(found) + 1];
+		for (int i = cells.length - 1; i >= 0; i--) {
+			cells[i] = found;
+			found = state.parentOf(found);
+		}
+		route.setCells(cells, cells.length);
+	}
+
+	/**
+	 * Repairs the path of route, whose locations at positions broken and
+	 * broken + 1 are no longer connected by a passage.
+	 */
+	private void repair(Route route, int broken) {
+		if (component[route.startCell] != component[route.goalCell]) {
+			route.setCells(null, 0);
+			return;
+		}
+		int[] cells = route.cells;
+		int found = search(route, cells[broken], broken);
+		if (found < 0) {
+			// The only way around goes back along the path, so start over
+			solve(route);
+			return;
+		}
+		int rejoin = route.position[found];
+		int detour = state.distanceTo(found) - 1;
+		int length = broken + 1 + detour + route.length - rejoin;
+		int[] repaired = length <= cells.length ? cells : new int[Math.max(length, cells.length * 2)];
+		for (int i = broken + 1; i < rejoin; i++) {
+			route.position[cells[i]] = -1;
+		}
+		if (repaired != cells) {
+			System.arraycopy(cells, 0, repaired, 0, broken + 1);
+		}
+		System.arraycopy(cells, rejoin, repaired, broken + 1 + detour, route.length - rejoin);
+		for (int i = broken + detour, cell = state.parentOf(found); i > broken; i--, cell = state.parentOf(cell)) {
+			repaired[i] = cell;
+		}
+		for (int i = broken + 1; i < length; i++) {
+			route.position[repaired[i]] = i;
+		}
+		route.cells = repaired;
+		route.length = length;
+		route.path = null;
+	}
+
+	/**
+	 * Searches breadth first from origin for route's goal or a location after
+	 * position index on route's path, without entering locations before that
+	 * position. Returns the location found, or -1 if there is none.
+	 */
+	private int search(Route route, int origin, int index) {
+		state.reset(component.length);
+		state.reachOrigin(origin);
+		queue[0] = origin;
+		int head = 0;
+		int tail = 1;
+		try {
+			while (head < tail) {
+				int here = queue[head];
+				head++;
+				if (here == route.goalCell || route.position[here] > index) {
+					return here;
+				}
+				int x = grid.cellX(here);
+				int y = grid.cellY(here);
+				for (int d = 0; d < 4; d++) {
+					if (state.canEnter(grid, x, y, d)) {
+						int next = grid.cell(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y]);
+						if (route.position[next] >= 0 && route.position[next] < index) {
+							continue;
+						}
+						state.reach(next, here);
+						if (tail == queue.length) {
+							queue = Arrays.copyOf(queue, tail * 2);
+						}
+						queue[tail] = next;
+						tail++;
+					}
+				}
+			}
+			return -1;
+		} finally {
+			lastChangeCost += head;
+		}
+	}
+
+	/** A path from a start to a goal location that is kept up to date as the maze changes. */
+	public final class Route {
+
+		/** The cell number of the first location. */
+		private final int startCell;
+
+		/** The cell number of the last location. */
+		private final int goalCell;
+
+		/** The cell numbers of the locations on the path, or null if there is none. */
+		private int[] cells;
+
+		/** The number of locations in cells that are on the path. */
+		private int length;
+
+		/** position[c] is the index of c on the path, or -1 if it is not on it. */
+		private final int[] position;
+
+		/** The path as a MazePath, or null if it has not been built since the path last changed. */
+		private MazePath path;
+
+		private Route(int startCell, int goalCell) {
+			this.startCell = startCell;
+			this.goalCell = goalCell;
+			position = new int[component.length];
+			Arrays.fill(position, -1);
+		}
+
+		/** Replaces the path with the first length locations of cells, which may be null. */
+		private void setCells(int[] cells, int length) {
+			for (int i = 0; i < this.length; i++) {
+				position[this.cells[i]] = -1;
+			}
+			for (int i = 0; i < length; i++) {
+				position[cells[i]] = i;
+			}
+			this.cells = cells;
+			this.length = length;
+			path = null;
+		}
+
+		/** Returns the current path from start to goal, or null if there is none. */
+		public MazePath getPath() {
+			if (cells == null) {
+				return null;
+			}
+			if (path == null) {
+				long[] directions = MazePath.newDirections(length - 1);
+				for (int i = 0; i + 1 < length; i++) {
+					MazePath.setDirection(directions, i, grid.direction(cells[i], cells[i + 1]));
+				}
+				path = new MazePath(grid.cellX(startCell), grid.cellY(startCell), length - 1, directions);
+			}
+			return path;
+		}
+
+		/** Returns true if there is currently a path from start to goal. */
+		public boolean isConnected() {
+			return cells != null;
+		}
+
+		/** Stops keeping this route's path up to date, so that its memory can be reclaimed. */
+		public void close() {
+			routes.remove(this);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.SplittableRandom;
+
+
+public class DynamicMazeTest {
+
+	/** Checks that path leads from start to goal through open passages of grid without repeating a location. */
+	private static void assertValid(MazeGrid grid, MazePath path, int[] start, int[] goal) {
+		assertEquals(start[Maze.X], path.getStartX());
+		assertEquals(start[Maze.Y], path.getStartY());
+		assertEquals(goal[Maze.X], path.getEndX());
+		assertEquals(goal[Maze.Y], path.getEndY());
+		boolean[] visited = new boolean[grid.getCellCount()];
+		MazePath.Cursor cursor = path.cursor();
+		visited[grid.cell(cursor.getX(), cursor.getY())] = true;
+		while (cursor.hasNext()) {
+			int x = cursor.getX();
+			int y = cursor.getY();
+			assertTrue(grid.hasPassage(x, y, cursor.next()));
+			int cell = grid.cell(cursor.getX(), cursor.getY());
+			assertFalse(visited[cell]);
+			visited[cell] = true;
+		}
+	}
+
+	@Test
+	public void keepsConnectivityAndRoutesUpToDate() {
+		MazeGrid grid = new MazeGrid(20, 15);
+		new MazeGenerator(grid, 0, 0, 3L).generate();
+		DynamicMaze maze = new DynamicMaze(grid);
+		assertEquals(1, maze.getComponentCount());
+		int[][] starts = { { 0, 0 }, { 19, 14 }, { 5, 7 } };
+		int[][] goals = { { 19, 14 }, { 0, 14 }, { 5, 7 } };
+		DynamicMaze.Route[] routes = new DynamicMaze.Route[starts.length];
+		for (int i = 0; i < routes.length; i++) {
+			routes[i] = maze.route(starts[i], goals[i]);
+		}
+		BreadthFirstSolver solver = new BreadthFirstSolver();
+		SplittableRandom random = new SplittableRandom(4L);
+		for (int edit = 0; edit < 2000; edit++) {
+			int x = random.nextInt(19);
+			int y = random.nextInt(14);
+			int d = random.nextBoolean() ? Maze.NORTH : Maze.EAST;
+			if (random.nextInt(3) == 0) {
+				maze.removePassage(x, y, d);
+			} else {
+				maze.addPassage(x, y, d);
+			}
+			for (int i = 0; i < routes.length; i++) {
+				boolean connected = solver.solve(grid, starts[i], goals[i]).isSolved();
+				assertEquals(connected, maze.isConnected(starts[i], goals[i]));
+				assertEquals(connected, routes[i].isConnected());
+				if (connected) {
+					assertValid(grid, routes[i].getPath(), starts[i], goals[i]);
+				} else {
+					assertNull(routes[i].getPath());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void countsComponents() {
+		DynamicMaze maze = new DynamicMaze(new MazeGrid(3));
+		assertEquals(9, maze.getComponentCount());
+		assertTrue(maze.addPassage(0, 0, Maze.NORTH));
+		assertFalse(maze.addPassage(0, 1, Maze.SOUTH));
+		assertTrue(maze.addPassage(0, 1, Maze.EAST));
+		assertEquals(7, maze.getComponentCount());
+		assertTrue(maze.isConnected(new int[] { 0, 0 }, new int[] { 1, 1 }));
+		assertTrue(maze.removePassage(1, 1, Maze.WEST));
+		assertFalse(maze.removePassage(1, 1, Maze.WEST));
+		assertEquals(8, maze.getComponentCount());
+		assertFalse(maze.isConnected(new int[] { 0, 0 }, new int[] { 1, 1 }));
+		assertThrows(IndexOutOfBoundsException.class, () -> maze.addPassage(2, 2, Maze.EAST));
+	}
+
+	@Test
+	public void repairsOnlyTheBrokenSegment() {
+		MazeGrid grid = MazeTestSupport.open(200);
+		DynamicMaze maze = new DynamicMaze(grid);
+		int[] start = { 0, 100 };
+		int[] goal = { 199, 100 };
+		DynamicMaze.Route route = maze.route(start, goal);
+		MazePath before = route.getPath();
+		assertEquals(200, before.length());
+		// Closing a passage the route uses costs a short detour, not a new search of 40,000 locations
+		assertTrue(maze.removePassage(100, 100, Maze.EAST));
+		assertTrue(maze.getLastChangeCost() < 100, "cost " + maze.getLastChangeCost());
+		MazePath after = route.getPath();
+		assertValid(grid, after, start, goal);
+		assertEquals(202, after.length());
+		// Closing a passage the route does not use leaves it alone
+		assertTrue(maze.removePassage(50, 50, Maze.NORTH));
+		assertSame(after, route.getPath());
+		route.close();
+		assertTrue(maze.removePassage(10, 100, Maze.EAST));
+		assertSame(after, route.getPath());
+	}
+
+	@Test
+	public void reconnectsRoutesWhenPassagesOpen() {
+		MazeGrid grid = new MazeGrid(4, 1);
+		DynamicMaze maze = new DynamicMaze(grid);
+		DynamicMaze.Route route = maze.route(new int[] { 0, 0 }, new int[] { 3, 0 });
+		assertFalse(route.isConnected());
+		maze.addPassage(0, 0, Maze.EAST);
+		maze.addPassage(2, 0, Maze.EAST);
+		assertNull(route.getPath());
+		maze.addPassage(1, 0, Maze.EAST);
+		assertEquals("[[0, 0], [1, 0], [2, 0], [3, 0]]", route.getPath().toString());
+		maze.removePassage(1, 0, Maze.WEST);
+		assertFalse(route.isConnected());
+	}
+
+}
@@ -0,0 +1,167 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates a perfect maze (one with exactly one path between any two
+ * locations) one row at a time using Eller's algorithm. Only O(width) state
+ * is kept, and each finished row is handed to a RowSink, so the number of
+ * rows is limited only by what the sink does with them.
+ */
+public class EllerGenerator {
+
+	/** Number of locations in each row. */
+	private final int width;
+
+	/** Number of rows. */
+	private final int height;
+
+	/** The source of random choices. */
+	private final RandomGenerator random;
+
+	/**
+	 * Sets of locations in the current row that are already connected, as a
+	 * union-find forest: set[x] is x's parent, and x is a root if set[x] == x.
+	 */
+	private final int[] set;
+
+	/** root[x] is the root of x's set, computed once the row's sets are final. */
+	private final int[] root;
+
+	/** remaining[r] counts members of set r not yet given a chance to go north. */
+	private final int[] remaining;
+
+	/** goesNorth[r] is true once some member of set r has a passage north. */
+	private final boolean[] goesNorth;
+
+	/** Passages to the east of each location in the current row. */
+	private final boolean[] east;
+
+	/** Passages to the north of each location in the current row. */
+	private final boolean[] north;
+
+	/** Creates a generator for a width by height maze. */
+	public EllerGenerator(int width, int height) {
+		this(width, height, new SplittableRandom());
+	}
+
+	/**
+	 * Creates a generator for a width by height maze whose random choices are
+	 * made by a generator seeded with seed. The same seed always produces the
+	 * same rows.
+	 */
+	public EllerGenerator(int width, int height, long seed) {
+		this(width, height, new SplittableRandom(seed));
+	}
+
+	/**
+	 * Creates a generator for a width by height maze whose random choices are
+	 * made with random.
+	 */
+	public EllerGenerator(int width, int height, RandomGenerator random) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Maze dimensions must be positive: " + width + " x " + height);
+		}
+		this.width = width;
+		this.height = height;
+		this.random = random;
+		set = new int[width];
+		root = new int[width];
+		remaining = new int[width];
+		goesNorth = new boolean[width];
+		east = new boolean[width];
+		north = new boolean[width];
+	}
+
+	/** Generates the maze, passing each row to sink as soon as it is finished. */
+	public void generate(RowSink sink) {
+		// Every location in the first row starts in its own set
+		for (int x = 0; x < width; x++) {
+			set[x] = x;
+		}
+		for (int y = 0; y < height; y++) {
+			boolean lastRow = y == height - 1;
+			joinEast(lastRow);
+			if (lastRow) {
+				Arrays.fill(north, false);
+			} else {
+				joinNorth();
+			}
+			sink.acceptRow(y, east, north);
+			if (!lastRow) {
+				startNextRow();
+			}
+		}
+	}
+
+	/**
+	 * Randomly adds passages between neighbors in different sets, merging
+	 * those sets. In the last row every such pair must be joined.
+	 */
+	private void joinEast(boolean lastRow) {
+		for (int x = 0; x + 1 < width; x++) {
+			int here = find(x);
+			int there = find(x + 1);
+			east[x] = here != there && (lastRow || random.nextBoolean());
+			if (east[x]) {
+				set[there] = here;
+			}
+		}
+		east[width - 1] = false;
+	}
+
+	/**
+	 * Randomly adds passages north, making sure every set gets at least one so
+	 * that no set is cut off from the rest of the maze.
+	 */
+	private void joinNorth() {
+		for (int x = 0; x < width; x++) {
+			root[x] = find(x);
+			remaining[x] = 0;
+			goesNorth[x] = false;
+		}
+		for (int x = 0; x < width; x++) {
+			remaining[root[x]]++;
+		}
+		for (int x = 0; x < width; x++) {
+			int r = root[x];
+			remaining[r]--;
+			// The last member of a set must go north if no other member has
+			north[x] = random.nextBoolean() || (!goesNorth[r] && remaining[r] == 0);
+			if (north[x]) {
+				goesNorth[r] = true;
+			}
+		}
+	}
+
+	/**
+	 * Sets up the sets of the next row: locations reached by a passage from
+	 * the south stay in the same set as the location below them, and all
+	 * others start in sets of their own.
+	 */
+	private void startNextRow() {
+		// remaining is reused to hold the first location in the new row for each
+		// old set, or -1
+		Arrays.fill(remaining, -1);
+		for (int x = 0; x < width; x++) {
+			if (north[x]) {
+				int r = root[x];
+				if (remaining[r] < 0) {
+					remaining[r] = x;
+				}
+				set[x] = remaining[r];
+			} else {
+				set[x] = x;
+			}
+		}
+	}
+
+	/** Returns the root of x's set, halving the path to it along the way. */
+	private int find(int x) {
+		while (set[x] != x) {
+			set[x] = set[set[x]];
+			x = set[x];
+		}
+		return x;
+	}
+}
@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class EllerGeneratorTest {
+
+	@Test
+	public void generateBuildsPerfectMaze() {
+		MazeGrid grid = new MazeGrid(40, 25);
+		new EllerGenerator(40, 25).generate(grid);
+		int passages = 0;
+		for (int x = 0; x < 40; x++) {
+			for (int y = 0; y < 25; y++) {
+				passages += grid.hasPassage(x, y, Maze.NORTH) ? 1 : 0;
+				passages += grid.hasPassage(x, y, Maze.EAST) ? 1 : 0;
+			}
+		}
+		// Connected with one fewer passage than locations means no cycles
+		assertEquals(40 * 25 - 1, passages);
+		MazeSolver solver = new BreadthFirstSolver();
+		for (int x = 0; x < 40; x++) {
+			for (int y = 0; y < 25; y++) {
+				assertTrue(solver.solve(grid, new int[] { 0, 0 }, new int[] { x, y }).isSolved());
+			}
+		}
+	}
+
+	@Test
+	public void generateSendsRowsInOrder() {
+		int[] nextRow = { 0 };
+		new EllerGenerator(5, 7).generate((y, east, north) -> {
+			assertEquals(nextRow[0], y);
+			assertEquals(5, east.length);
+			// Nothing leads out of the maze
+			assertFalse(east[4]);
+			if (y == 6) {
+				assertFalse(north[0] || north[1] || north[2] || north[3] || north[4]);
+			}
+			nextRow[0]++;
+		});
+		assertEquals(7, nextRow[0]);
+	}
+
+	@Test
+	public void generateHandlesSingleRowAndColumn() {
+		MazeGrid row = new MazeGrid(6, 1);
+		new EllerGenerator(6, 1).generate(row);
+		assertTrue(new BreadthFirstSolver().solve(row, new int[] { 0, 0 }, new int[] { 5, 0 }).isSolved());
+		MazeGrid column = new MazeGrid(1, 6);
+		new EllerGenerator(1, 6).generate(column);
+		assertTrue(new BreadthFirstSolver().solve(column, new int[] { 0, 0 }, new int[] { 0, 5 }).isSolved());
+	}
+
+	@Test
+	public void checksumMatchesForIdenticalRows() {
+		MazeGrid grid = new MazeGrid(9, 9);
+		RowChecksum streamed = new RowChecksum();
+		new EllerGenerator(9, 9).generate((y, east, north) -> {
+			grid.acceptRow(y, east, north);
+			streamed.acceptRow(y, east, north);
+		});
+		// Replay the stored maze row by row
+		RowChecksum replayed = new RowChecksum();
+		boolean[] east = new boolean[9];
+		boolean[] north = new boolean[9];
+		for (int y = 0; y < 9; y++) {
+			for (int x = 0; x < 9; x++) {
+				east[x] = grid.hasPassage(x, y, Maze.EAST);
+				north[x] = grid.hasPassage(x, y, Maze.NORTH);
+			}
+			replayed.acceptRow(y, east, north);
+		}
+		assertEquals(streamed.getValue(), replayed.getValue());
+		assertNotEquals(new RowChecksum().getValue(), replayed.getValue());
+	}
+
+	@Test
+	public void sameSeedGeneratesSameRows() {
+		RowChecksum first = new RowChecksum();
+		new EllerGenerator(30, 40, 7L).generate(first);
+		RowChecksum second = new RowChecksum();
+		new EllerGenerator(30, 40, 7L).generate(second);
+		RowChecksum other = new RowChecksum();
+		new EllerGenerator(30, 40, 8L).generate(other);
+		assertEquals(first.getValue(), second.getValue());
+		assertNotEquals(first.getValue(), other.getValue());
+	}
+
+}
@@ -0,0 +1,230 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A copy of everything a seeded MazeGenerator needs to carry on exactly where
+ * it was: the passages so far, the visited bitmap, the frontier, the counts,
+ * the last explored location, and the state of its SeededRandom. A
+ * generator resumed from a checkpoint makes the same choices, and so builds
+ * the same maze, as the one the checkpoint was taken from. Checkpoints are
+ * written in a compact binary format, in little-endian order:
+ *
+ * <pre>
+ * int  MAGIC
+ * int  VERSION
+ * int  width
+ * int  height
+ * long seed
+ * long random generator state
+ * int  frontier size
+ * int  done count
+ * int  unexplored count
+ * int  last explored cell number, or -1
+ * </pre>
+ *
+ * followed by the passage bits of the maze as longs, the visited bitmap as
+ * longs, and the frontier as ints: about 3 bits per location, plus 4 bytes
+ * per frontier location.
+ */
+public final class GenerationCheckpoint {
+
+	/** The first four bytes of every checkpoint: "MZCK" in ASCII. */
+	public static final int MAGIC = 0x4B435A4D;
+
+	/** The version of the format written by this class. */
+	public static final int VERSION = 2;
+
+	/** The number of bytes before the passage bits. */
+	public static final int HEADER_BYTES = 48;
+
+	/** The size of the buffer used to read and write checkpoints. */
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	/** The number of locations in the x direction. */
+	private final int width;
+
+	/** The number of locations in the y direction. */
+	private final int height;
+
+	/** The seed of the generator's random sequence. */
+	private final long seed;
+
+	/** The state of the generator's SeededRandom. */
+	private final long state;
+
+	/** The passage bits, as MazeGrid stores them. */
+	private final long[] words;
+
+	/** The generator's visited bitmap. */
+	private final long[] visited;
+
+	/** The generator's frontier, exactly frontierSize long. */
+	private final int[] frontier;
+
+	/** The generator's done count. */
+	private final int doneCount;
+
+	/** The generator's unexplored count. */
+	private final int unexploredCount;
+
+	/** The generator's last explored location, or -1. */
+	private final int lastExplored;
+
+	/** Creates a checkpoint from copies of a generator's state, which are not copied again. */
+	GenerationCheckpoint(int width, int height, long seed, long state, long[] words, long[] visited, int[] frontier,
+			int doneCount, int unexploredCount, int lastExplored) {
+		this.width = width;
+		this.height = height;
+		this.seed = seed;
+		this.state = state;
+		this.words = words;
+		this.visited = visited;
+		this.frontier = frontier;
+		this.doneCount = doneCount;
+		this.unexploredCount = unexploredCount;
+		this.lastExplored = lastExplored;
+	}
+
+	/** Returns the seed of the generator's random sequence. */
+	public long getSeed() {
+		return seed;
+	}
+
+	/** Returns the number of locations that had been reached when the checkpoint was taken. */
+	public long getReachedCount() {
+		return (long) width * height - unexploredCount;
+	}
+
+	/**
+	 * Returns a new generator, with a new MazeGrid holding the passages so
+	 * far, that carries on from this checkpoint.
+	 */
+	public MazeGenerator resume() {
+		MazeGrid grid = new MazeGrid(width, height);
+		for (int i = 0; i < words.length; i++) {
+			grid.setWord(i, words[i]);
+		}
+		int[] fullFrontier = new int[grid.getCellCount()];
+		System.arraycopy(frontier, 0, fullFrontier, 0, frontier.length);
+		return new MazeGenerator(grid, new SeededRandom(seed, state), visited.clone(), fullFrontier, frontier.length,
+				doneCount, unexploredCount, lastExplored);
+	}
+
+	/** Writes this checkpoint to the file at path, replacing anything there. */
+	public void write(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(channel);
+			channel.force(false);
+		}
+	}
+
+	/** Writes this checkpoint to channel, leaving channel open. */
+	public void write(WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(width);
+		buffer.putInt(height);
+		buffer.putLong(seed);
+		buffer.putLong(state);
+		buffer.putInt(frontier.length);
+		buffer.putInt(doneCount);
+		buffer.putInt(unexploredCount);
+		buffer.putInt(lastExplored);
+		for (long[] longs : new long[][] { words, visited }) {
+			for (long word : longs) {
+				if (buffer.remaining() < Long.BYTES) {
+					MazeFile.writeFully(channel, buffer);
+				}
+				buffer.putLong(word);
+			}
+		}
+		for (int cell : frontier) {
+			if (buffer.remaining() < Integer.BYTES) {
+				MazeFile.writeFully(channel, buffer);
+			}
+			buffer.putInt(cell);
+		}
+		MazeFile.writeFully(channel, buffer);
+	}
+
+	/** Reads the checkpoint in the file at path. */
+	public static GenerationCheckpoint read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return read(channel);
+		}
+	}
+
+	/**
+	 * Reads a checkpoint from channel, leaving channel open. Throws an
+	 * IOException if what it reads is not a checkpoint in a known version.
+	 */
+	public static GenerationCheckpoint read(ReadableByteChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.flip();
+		fill(channel, buffer, HEADER_BYTES);
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a generation checkpoint");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported checkpoint version " + version);
+		}
+		int width = buffer.getInt();
+		int height = buffer.getInt();
+		long seed = buffer.getLong();
+		long state = buffer.getLong();
+		int frontierSize = buffer.getInt();
+		int doneCount = buffer.getInt();
+		int unexploredCount = buffer.getInt();
+		int lastExplored = buffer.getInt();
+		long cells = (long) width * height;
+		if (width <= 0 || height <= 0 || cells > Integer.MAX_VALUE || frontierSize < 0 || frontierSize > cells
+				|| unexploredCount < 0 || unexploredCount >= cells || lastExplored < -1 || lastExplored >= cells) {
+			throw new IOException("Corrupt checkpoint header");
+		}
+		long[] words = new long[(int) MazeGrid.getWordCount(width, height)];
+		long[] visited = new long[(int) ((cells + 63) >>> 6)];
+		for (long[] longs : new long[][] { words, visited }) {
+			for (int i = 0; i < longs.length; i++) {
+				fill(channel, buffer, Long.BYTES);
+				longs[i] = buffer.getLong();
+			}
+		}
+		int[] frontier = new int[frontierSize];
+		for (int i = 0; i < frontierSize; i++) {
+			fill(channel, buffer, Integer.BYTES);
+			frontier[i] = buffer.getInt();
+			if (frontier[i] < 0 || frontier[i] >= cells) {
+				throw new IOException("Corrupt checkpoint frontier");
+			}
+		}
+		return new GenerationCheckpoint(width, height, seed, state, words, visited, frontier, doneCount,
+				unexploredCount, lastExplored);
+	}
+
+	/**
+	 * Reads from channel until buffer, which is ready to be read from, has at
+	 * least the given number of bytes remaining. Throws an IOException if the
+	 * channel ends first.
+	 */
+	private static void fill(ReadableByteChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return;
+		}
+		buffer.compact();
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) < 0) {
+				throw new IOException("Checkpoint is truncated");
+			}
+		}
+		buffer.flip();
+	}
+}
@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+public class GenerationCheckpointTest {
+
+	/** Returns the maze a MazeGenerator seeded with seed builds without interruption. */
+	private static MazeGrid uninterrupted(int width, int height, long seed) {
+		MazeGrid grid = new MazeGrid(width, height);
+		new MazeGenerator(grid, 0, 0, seed).generate();
+		return grid;
+	}
+
+	@Test
+	public void seededRandomFollowsSplitMix64() {
+		// The first outputs of the reference SplitMix64 for seed 0
+		SeededRandom random = new SeededRandom(0L);
+		assertEquals(0xe220a8397b1dcdafL, random.nextLong());
+		assertEquals(0x6e789e6aa1b965f4L, random.nextLong());
+		long state = random.getState();
+		assertEquals(0x06c45d188009454fL, random.nextLong());
+		assertEquals(0x06c45d188009454fL, new SeededRandom(0L, state).nextLong());
+	}
+
+	@Test
+	public void resumedGeneratorBuildsTheSameMaze() throws IOException {
+		MazeGenerator generator = new MazeGenerator(new MazeGrid(40, 25), 0, 0, 11L);
+		for (int i = 0; i < 700; i++) {
+			generator.step();
+		}
+		GenerationCheckpoint checkpoint = generator.checkpoint();
+		// Steps taken after the checkpoint do not change it
+		generator.generate();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		checkpoint.write(Channels.newChannel(bytes));
+		GenerationCheckpoint read = GenerationCheckpoint.read(Channels.newChannel(new ByteArrayInputStream(
+				bytes.toByteArray())));
+		assertEquals(11L, read.getSeed());
+		assertEquals(checkpoint.getReachedCount(), read.getReachedCount());
+		MazeGenerator resumed = read.resume();
+		assertFalse(resumed.isFinished());
+		resumed.generate();
+		assertEquals(uninterrupted(40, 25, 11L), resumed.getGrid());
+		assertEquals(generator.getGrid(), resumed.getGrid());
+	}
+
+	@Test
+	public void checkpointerWritesResumableFiles() throws IOException {
+		Path directory = Files.createTempDirectory("checkpoints");
+		Path path = directory.resolve("maze.ckpt");
+		try {
+			MazeGrid grid = new MazeGrid(50);
+			try (GenerationCheckpointer checkpointer = new GenerationCheckpointer(path, 500)) {
+				checkpointer.generate(new MazeGenerator(grid, 0, 0, 21L));
+				assertTrue(checkpointer.getCheckpointCount() > 0);
+			}
+			assertFalse(Files.exists(directory.resolve("maze.ckpt.tmp")));
+			MazeGenerator resumed = GenerationCheckpointer.resume(path);
+			resumed.generate();
+			assertEquals(grid, resumed.getGrid());
+		} finally {
+			Files.deleteIfExists(path);
+			Files.delete(directory);
+		}
+	}
+
+	@Test
+	public void failedWritesLeaveNoTemporaryFile() throws IOException {
+		Path directory = Files.createTempDirectory("checkpoints");
+		// A directory that is not empty cannot be replaced by the checkpoint
+		Path path = Files.createDirectory(directory.resolve("maze.ckpt"));
+		Path blocker = Files.createFile(path.resolve("blocker"));
+		try {
+			try (GenerationCheckpointer checkpointer = new GenerationCheckpointer(path, 10)) {
+				assertThrows(IOException.class, () -> checkpointer.generate(new MazeGenerator(new MazeGrid(10), 0, 0,
+						2L)));
+			}
+			assertFalse(Files.exists(directory.resolve("maze.ckpt.tmp")));
+		} finally {
+			Files.delete(blocker);
+			Files.delete(path);
+			Files.delete(directory);
+		}
+	}
+
+	@Test
+	public void rejectsWhatIsNotACheckpoint() throws IOException {
+		assertThrows(IllegalStateException.class,
+				() -> new MazeGenerator(new MazeGrid(5), 0, 0, new SplittableRandom(1L)).checkpoint());
+		assertThrows(IOException.class, () -> GenerationCheckpoint.read(Channels.newChannel(new ByteArrayInputStream(
+				new byte[100]))));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new MazeGenerator(new MazeGrid(5), 0, 0, 1L).checkpoint().write(Channels.newChannel(bytes));
+		byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+		assertThrows(IOException.class, () -> GenerationCheckpoint.read(Channels.newChannel(new ByteArrayInputStream(
+				truncated))));
+	}
+
+}
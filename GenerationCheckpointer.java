@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a seeded MazeGenerator to the end, saving a GenerationCheckpoint to a
+ * file every so many steps, so that a long run that dies can be carried on
+ * with resume instead of started over. Taking a checkpoint copies the
+ * generator's passages, visited bitmap and frontier on the generating thread,
+ * so generation pauses at each checkpoint for time proportional to the size
+ * of the maze (about 3 bits per location, plus 4 bytes per frontier
+ * location); the interval should be long enough that these pauses are small
+ * next to the steps between them. The checkpoint is then written on a
+ * background thread while generation goes on. If the previous checkpoint is
+ * still being written when the next one is due, that one is skipped rather
+ * than waited for. Each checkpoint is written to a temporary file that then
+ * replaces the old one, so the file always holds a complete checkpoint, and
+ * the temporary file is deleted if writing fails.
+ */
+public class GenerationCheckpointer implements AutoCloseable {
+
+	/** The file holding the latest checkpoint. */
+	private final Path path;
+
+	/** The file each checkpoint is written to before it replaces the one at path. */
+	private final Path temporary;
+
+	/** The number of steps between checkpoints. */
+	private final long interval;
+
+	/** Writes checkpoints in the background. */
+	private final ExecutorService writer;
+
+	/** The checkpoint being written, or null if there is none. */
+	private Future<?> pending;
+
+	/** The number of checkpoints written or being written. */
+	private int checkpointCount;
+
+	/** Creates a checkpointer that saves a checkpoint to path every interval steps. */
+	public GenerationCheckpointer(Path path, long interval) {
+		if (interval <= 0) {
+			throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+		}
+		this.path = path;
+		this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		this.interval = interval;
+		writer = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "checkpoint writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/** Returns a generator that carries on from the checkpoint in the file at path. */
+	public static MazeGenerator resume(Path path) throws IOException {
+		return GenerationCheckpoint.read(path).resume();
+	}
+
+	/** Returns the number of checkpoints started so far. */
+	public int getCheckpointCount() {
+		return checkpointCount;
+	}
+
+	/**
+	 * Expands the maze until every location has been reached, checkpointing
+	 * along the way, and waits for the last checkpoint to be written. Throws
+	 * an IOException if writing a checkpoint failed.
+	 */
+	public void generate(MazeGenerator generator) throws IOException {
+		try {
+			generator.generate((steps, there) -> {
+				if (steps % interval == 0 && (pending == null || pending.isDone())) {
+					startCheckpoint(generator);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		awaitPending();
+	}
+
+	/**
+	 * Takes a checkpoint of generator and starts writing it. Throws an
+	 * UncheckedIOException if writing the previous one failed.
+	 */
+	private void startCheckpoint(MazeGenerator generator) {
+		try {
+			awaitPending();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		GenerationCheckpoint checkpoint = generator.checkpoint();
+		pending = writer.submit(() -> {
+			write(checkpoint);
+			return null;
+		});
+		checkpointCount++;
+	}
+
+	/**
+	 * Writes checkpoint to the temporary file, then moves it over the file at
+	 * path. If either fails, the temporary file is deleted.
+	 */
+	private void write(GenerationCheckpoint checkpoint) throws IOException {
+		try {
+			checkpoint.write(temporary);
+			try {
+				Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException | RuntimeException e) {
+			try {
+				Files.deleteIfExists(temporary);
+			} catch (IOException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
+	}
+
+	/** Waits for the checkpoint being written, if any, and rethrows any exception writing it threw. */
+	private void awaitPending() throws IOException {
+		if (pending == null) {
+			return;
+		}
+		try {
+			pending.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while writing a checkpoint", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		} finally {
+			pending = null;
+		}
+	}
+
+	/** Stops the background writer once any checkpoint being written is done. */
+	@Override
+	public void close() {
+		writer.shutdown();
+	}
+}
@@ -0,0 +1,175 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+
+/**
+ * Publishes the passages a generator adds, in batches, to any number of
+ * subscribers, such as a MazeRenderer, something writing the maze out, or
+ * something counting progress. Each subscriber is called on the executor,
+ * in order, and has its own buffer of at most maxBuffered batches. When a
+ * subscriber falls that far behind, publishing blocks until it catches up,
+ * so a subscriber that is slow on purpose (such as a renderer keeping to a
+ * frame rate) sets the pace of generation, and none of them ever misses a
+ * passage. With no subscribers, batches are dropped as soon as they fill,
+ * and generation runs at full speed.
+ *
+ * <p>
+ * Subscribers see only the passages added after they subscribe. The
+ * generating side (generate, acceptRow, passageAdded, and close) must be
+ * called from one thread at a time.
+ */
+public class GenerationPublisher implements Flow.Publisher<PassageBatch>, RowSink, AutoCloseable {
+
+	/** The number of passages in a batch when none is given. */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	/** Delivers batches to subscribers. */
+	private final SubmissionPublisher<PassageBatch> publisher;
+
+	/** The number of passages collected before a batch is published. */
+	private final int batchSize;
+
+	/** The x coordinates of the passages collected for the next batch. */
+	private int[] xs;
+
+	/** The y coordinates of the passages collected for the next batch. */
+	private int[] ys;
+
+	/** The directions of the passages collected for the next batch. */
+	private byte[] directions;
+
+	/** The number of passages collected for the next batch. */
+	private int count;
+
+	/** The number of passages added before the next batch. */
+	private long published;
+
+	/**
+	 * Creates a publisher that delivers batches of DEFAULT_BATCH_SIZE passages
+	 * on the common pool, buffering up to Flow.defaultBufferSize() batches for
+	 * each subscriber.
+	 */
+	public GenerationPublisher() {
+		this(ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE, Flow.defaultBufferSize());
+	}
+
+	/**
+	 * Creates a publisher that delivers batches of batchSize passages on
+	 * executor, buffering up to maxBuffered batches for each subscriber.
+	 */
+	public GenerationPublisher(Executor executor, int batchSize, int maxBuffered) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		publisher = new SubmissionPublisher<>(executor, maxBuffered);
+		this.batchSize = batchSize;
+		newBatch();
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super PassageBatch> subscriber) {
+		publisher.subscribe(subscriber);
+	}
+
+	/**
+	 * Subscribes a consumer that is handed every batch, and returns a future
+	 * that completes when the consumer has been handed the last one.
+	 */
+	public CompletableFuture<Void> consume(Consumer<? super PassageBatch> consumer) {
+		return publisher.consume(consumer);
+	}
+
+	/** Returns true if anything is subscribed. */
+	public boolean hasSubscribers() {
+		return publisher.hasSubscribers();
+	}
+
+	/**
+	 * Runs generator until every location has been reached, publishing each
+	 * passage it adds, then publishes the last partial batch and closes this
+	 * publisher. If generation fails, subscribers are told of the exception
+	 * instead, and it is passed on.
+	 */
+	public void generate(MazeGenerator generator) {
+		MazeGrid grid = generator.getGrid();
+		try {
+			generator.generate((steps, there) -> {
+				if (there >= 0) {
+					// A location just reached has only the passage it was reached by
+					int x = grid.cellX(there);
+					int y = grid.cellY(there);
+					for (int d = 0; d < 4; d++) {
+						if (grid.hasPassage(x, y, d)) {
+							passageAdded(x, y, d);
+							break;
+						}
+					}
+				}
+			});
+		} catch (RuntimeException | Error e) {
+			publisher.closeExceptionally(e);
+			throw e;
+		}
+		close();
+	}
+
+	/** Publishes the passages in row y, so that an EllerGenerator can feed this publisher. */
+	@Override
+	public void acceptRow(int y, boolean[] east, boolean[] north) {
+		for (int x = 0; x < east.length; x++) {
+			if (east[x]) {
+				passageAdded(x, y, Maze.EAST);
+			}
+			if (north[x]) {
+				passageAdded(x, y, Maze.NORTH);
+			}
+		}
+	}
+
+	/**
+	 * Adds the passage from location x, y in direction to the next batch,
+	 * publishing the batch if it is full.
+	 */
+	public void passageAdded(int x, int y, int direction) {
+		xs[count] = x;
+		ys[count] = y;
+		directions[count] = (byte) direction;
+		count++;
+		if (count == batchSize) {
+			flush();
+		}
+	}
+
+	/**
+	 * Publishes the passages collected so far, even if there are fewer than a
+	 * full batch, waiting if any subscriber's buffer is full.
+	 */
+	public void flush() {
+		if (count == 0) {
+			return;
+		}
+		if (publisher.hasSubscribers()) {
+			publisher.submit(new PassageBatch(published, xs, ys, directions, count));
+			newBatch();
+		}
+		published += count;
+		count = 0;
+	}
+
+	/** Publishes any passages collected so far, then tells subscribers there will be no more. */
+	@Override
+	public void close() {
+		flush();
+		publisher.close();
+	}
+
+	/** Starts collecting passages into new arrays, since the old ones now belong to a published batch. */
+	private void newBatch() {
+		xs = new int[batchSize];
+		ys = new int[batchSize];
+		directions = new byte[batchSize];
+	}
+}
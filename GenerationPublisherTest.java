@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+
+
+public class GenerationPublisherTest {
+
+	@Test
+	public void subscribersSeeEveryPassageInOrder() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			MazeGrid grid = new MazeGrid(30, 20);
+			GenerationPublisher events = new GenerationPublisher(executor, 50, 2);
+			MazeGrid copy = new MazeGrid(30, 20);
+			List<PassageBatch> batches = new ArrayList<>();
+			CompletableFuture<Void> copied = events.consume(batch -> batch.addTo(copy));
+			CompletableFuture<Void> listed = events.consume(batches::add);
+			events.generate(new MazeGenerator(grid, 0, 0, 5L));
+			copied.join();
+			listed.join();
+			assertEquals(grid, copy);
+			long index = 0;
+			for (PassageBatch batch : batches) {
+				assertEquals(index, batch.getFirstIndex());
+				assertTrue(batch.size() <= 50);
+				index += batch.size();
+			}
+			assertEquals(30 * 20 - 1, index);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void slowSubscriberHoldsBackGeneration() throws InterruptedException {
+		GenerationPublisher events = new GenerationPublisher(Runnable::run, 1, 1);
+		Flow.Subscription[] subscription = new Flow.Subscription[1];
+		int[] received = new int[1];
+		events.subscribe(new Flow.Subscriber<PassageBatch>() {
+			@Override
+			public void onSubscribe(Flow.Subscription s) {
+				subscription[0] = s;
+			}
+
+			@Override
+			public void onNext(PassageBatch batch) {
+				received[0] += batch.size();
+			}
+
+			@Override
+			public void onError(Throwable t) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+		MazeGenerator generator = new MazeGenerator(new MazeGrid(10), 0, 0, 6L);
+		Thread thread = new Thread(() -> events.generate(generator));
+		thread.start();
+		// Nothing has been requested, so generation stops once the buffer is full
+		long deadline = System.currentTimeMillis() + 5000;
+		while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(thread.isAlive());
+		assertFalse(generator.isFinished());
+		subscription[0].request(Long.MAX_VALUE);
+		thread.join(5000);
+		assertTrue(generator.isFinished());
+		assertEquals(99, received[0]);
+	}
+
+	@Test
+	public void failedGenerationIsPassedOnToSubscribers() {
+		GenerationPublisher events = new GenerationPublisher(Runnable::run, 1, 4);
+		CompletableFuture<Void> consumed = events.consume(batch -> {
+		});
+		MazeGenerator generator = new MazeGenerator(new MazeGrid(10), 0, 0, 8L) {
+			private int steps;
+
+			@Override
+			public int step() {
+				if (++steps > 20) {
+					throw new IllegalStateException("Out of steps");
+				}
+				return super.step();
+			}
+		};
+		assertThrows(IllegalStateException.class, () -> events.generate(generator));
+		CompletionException e = assertThrows(CompletionException.class, consumed::join);
+		assertTrue(e.getCause() instanceof IllegalStateException);
+	}
+
+	@Test
+	public void publishesRowsWithoutSubscribers() {
+		GenerationPublisher events = new GenerationPublisher();
+		assertFalse(events.hasSubscribers());
+		new EllerGenerator(40, 40, 7L).generate(events);
+		events.close();
+		MazeGrid grid = new MazeGrid(40);
+		GenerationPublisher rows = new GenerationPublisher(Runnable::run, 7, 4);
+		MazeGrid copy = new MazeGrid(40);
+		CompletableFuture<Void> copied = rows.consume(batch -> batch.addTo(copy));
+		new EllerGenerator(40, 40, 7L).generate(rows);
+		rows.close();
+		copied.join();
+		new EllerGenerator(40, 40, 7L).generate(grid);
+		assertEquals(grid, copy);
+	}
+
+}
@@ -0,0 +1,262 @@
+import java.util.Arrays;
+
+/**
+ * A maze contracted to its junctions. Every location that does not have
+ * exactly two passages (a junction, a dead end, or a location cut off from
+ * the rest) becomes a node, and every corridor of two-passage locations
+ * between two nodes becomes one edge weighted by its length. Large perfect
+ * mazes are mostly corridors, so the graph has far fewer nodes than the maze
+ * has locations; JunctionSolver searches it and walks corridors only to spell
+ * out the final path.
+ *
+ * <p>
+ * Each corridor has two ends, A and B, numbered 2 * corridor and 2 * corridor
+ * + 1. Locations inside a corridor record their distance from end A and the
+ * direction toward each end, so a path can be walked from any of them. A
+ * loop of corridor locations with no junction on it is given a node of its
+ * own, so that every location belongs to a node or a corridor. The graph
+ * does not see passages added to or removed from the grid after it is built.
+ */
+public class JunctionGraph {
+
+	/** Marks a location not yet assigned to a node or corridor while the graph is built. */
+	private static final int UNASSIGNED = Integer.MIN_VALUE;
+
+	/** The maze that was contracted. */
+	private final MazeGrid grid;
+
+	/**
+	 * owner[c] is the corridor containing c if it is not negative, or ~n if c
+	 * is node n.
+	 */
+	private final int[] owner;
+
+	/** offset[c] is the number of steps from end A of c's corridor to c. */
+	private final int[] offset;
+
+	/**
+	 * directions[c] holds, for a location inside a corridor, the direction
+	 * toward end A in bits 0-1 and toward end B in bits 2-3.
+	 */
+	private final byte[] directions;
+
+	/** nodeCell[n] is the cell number of node n. */
+	private int[] nodeCell = new int[16];
+
+	/** The number of nodes. */
+	private int nodeCount;
+
+	/** endNode[e] is the node at corridor end e. */
+	private int[] endNode = new int[32];
+
+	/** endDirection[e] is the direction from endNode[e] into the corridor. */
+	private byte[] endDirection = new byte[32];
+
+	/** length[k] is the number of steps from one end of corridor k to the other. */
+	private int[] length = new int[16];
+
+	/** The number of corridors. */
+	private int corridorCount;
+
+	/**
+	 * The ends at which each node's corridors meet it: those of node n are
+	 * nodeEnds[firstEnd[n]] up to but not including nodeEnds[firstEnd[n + 1]].
+	 */
+	private final int[] firstEnd;
+
+	/** Corridor ends, grouped by node. */
+	private final int[] nodeEnds;
+
+	/** Contracts grid. */
+	public JunctionGraph(MazeGrid grid) {
+		this.grid = grid;
+		int cells = grid.getCellCount();
+		owner = new int[cells];
+		offset = new int[cells];
+		directions = new byte[cells];
+		for (int c = 0; c < cells; c++) {
+			owner[c] = passageCount(c) == 2 ? UNASSIGNED : ~addNode(c);
+		}
+		int junctions = nodeCount;
+		for (int n = 0; n < junctions; n++) {
+			traceCorridors(n);
+		}
+		// Whatever is left lies on loops with no junctions
+		for (int c = 0; c < cells; c++) {
+			if (owner[c] == UNASSIGNED) {
+				int n = addNode(c);
+				owner[c] = ~n;
+				traceCorridors(n);
+			}
+		}
+		// Group the corridor ends by node
+		firstEnd = new int[nodeCount + 1];
+		for (int e = 0; e < 2 * corridorCount; e++) {
+			firstEnd[endNode[e] + 1]++;
+		}
+		for (int n = 0; n < nodeCount; n++) {
+			firstEnd[n + 1] += firstEnd[n];
+		}
+		nodeEnds = new int[2 * corridorCount];
+		int[] next = Arrays.copyOf(firstEnd, nodeCount);
+		for (int e = 0; e < 2 * corridorCount; e++) {
+			nodeEnds[next[endNode[e]]] = e;
+			next[endNode[e]]++;
+		}
+	}
+
+	/** Returns the maze that was contracted. */
+	public MazeGrid getGrid() {
+		return grid;
+	}
+
+	/** Returns the number of nodes. */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/** Returns the number of corridors (edges). */
+	public int getCorridorCount() {
+		return corridorCount;
+	}
+
+	/** Returns the node at the location with cell number cell, or -1 if it lies inside a corridor. */
+	public int nodeAt(int cell) {
+		return owner[cell] < 0 ? ~owner[cell] : -1;
+	}
+
+	/** Returns the corridor containing the location with cell number cell, or -1 if it is a node. */
+	public int corridorAt(int cell) {
+		return owner[cell] >= 0 ? owner[cell] : -1;
+	}
+
+	/** Returns the cell number of node n. */
+	public int nodeCell(int n) {
+		return nodeCell[n];
+	}
+
+	/** Returns the number of corridors that meet at node n. */
+	public int degree(int n) {
+		return firstEnd[n + 1] - firstEnd[n];
+	}
+
+	/** Returns the number of steps from one end of corridor k to the other. */
+	public int length(int k) {
+		return length[k];
+	}
+
+	/** Returns the number of steps from end A of its corridor to cell, which must lie inside a corridor. */
+	int offset(int cell) {
+		return offset[cell];
+	}
+
+	/** Returns the node at corridor end e. */
+	int endNode(int e) {
+		return endNode[e];
+	}
+
+	/** Returns the index in nodeEnds of the first corridor end at node n. */
+	int firstEnd(int n) {
+		return firstEnd[n];
+	}
+
+	/** Returns the ith corridor end grouped by node. */
+	int nodeEnd(int i) {
+		return nodeEnds[i];
+	}
+
+	/**
+	 * Writes into path, starting at path[at], the steps locations reached by
+	 * walking from cell toward end e of the corridor, not including cell
+	 * itself. If cell is a node, it must be the node at the other end of that
+	 * corridor.
+	 */
+	void walk(int cell, int e, int steps, int[][] path, int at) {
+		int side = 2 * (e & 1);
+		int direction = owner[cell] < 0 ? endDirection[e ^ 1] : (directions[cell] >>> side) & 3;
+		int height = grid.getHeight();
+		for (int i = 0; i < steps; i++) {
+			cell += Maze.OFFSETS[direction][Maze.X] * height + Maze.OFFSETS[direction][Maze.Y];
+			path[at + i] = new int[] { grid.cellX(cell), grid.cellY(cell) };
+			direction = (directions[cell] >>> side) & 3;
+		}
+	}
+
+	/** Returns the number of passages from the location with cell number cell. */
+	private int passageCount(int cell) {
+		int x = grid.cellX(cell);
+		int y = grid.cellY(cell);
+		int count = 0;
+		for (int d = 0; d < 4; d++) {
+			if (grid.hasPassage(x, y, d)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/** Makes the location with cell number cell a node and returns its number. */
+	private int addNode(int cell) {
+		if (nodeCount == nodeCell.length) {
+			nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+		}
+		nodeCell[nodeCount] = cell;
+		nodeCount++;
+		return nodeCount - 1;
+	}
+
+	/** Adds a corridor for each passage from node n that does not yet lead into one. */
+	private void traceCorridors(int n) {
+		int start = nodeCell[n];
+		int x = grid.cellX(start);
+		int y = grid.cellY(start);
+		for (int d = 0; d < 4; d++) {
+			if (grid.hasPassage(x, y, d)) {
+				int next = grid.cell(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y]);
+				// A corridor with no locations inside is added from its lower
+				// numbered node only; any other is added from whichever end
+				// reaches it first
+				if (owner[next] == UNASSIGNED || (owner[next] < 0 && n < ~owner[next])) {
+					traceCorridor(n, d);
+				}
+			}
+		}
+	}
+
+	/** Adds the corridor leaving node n in direction d, assigning the locations inside it. */
+	private void traceCorridor(int n, int d) {
+		if (corridorCount == length.length) {
+			length = Arrays.copyOf(length, corridorCount * 2);
+			endNode = Arrays.copyOf(endNode, corridorCount * 4);
+			endDirection = Arrays.copyOf(endDirection, corridorCount * 4);
+		}
+		int k = corridorCount;
+		corridorCount++;
+		endNode[2 * k] = n;
+		endDirection[2 * k] = (byte) d;
+		int cell = nodeCell[n];
+		int steps = 0;
+		while (true) {
+			int x = grid.cellX(cell) + Maze.OFFSETS[d][Maze.X];
+			int y = grid.cellY(cell) + Maze.OFFSETS[d][Maze.Y];
+			cell = grid.cell(x, y);
+			steps++;
+			if (owner[cell] != UNASSIGNED) {
+				break;
+			}
+			// Inside the corridor: leave by the passage we did not come in by
+			int back = (d + 2) % 4;
+			int out = 0;
+			while (out == back || !grid.hasPassage(x, y, out)) {
+				out++;
+			}
+			owner[cell] = k;
+			offset[cell] = steps;
+			directions[cell] = (byte) (back | (out << 2));
+			d = out;
+		}
+		endNode[2 * k + 1] = ~owner[cell];
+		endDirection[2 * k + 1] = (byte) ((d + 2) % 4);
+		length[k] = steps;
+	}
+}
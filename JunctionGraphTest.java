@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+public class JunctionGraphTest {
+
+	/** Checks that path is a walk through grid from start to goal with the given number of steps. */
+	private static void assertValidPath(MazeGrid grid, int[] start, int[] goal, int steps, int[][] path) {
+		assertEquals(steps + 1, path.length);
+		assertArrayEquals(start, path[0]);
+		assertArrayEquals(goal, path[steps]);
+		for (int i = 0; i < steps; i++) {
+			int dx = path[i + 1][0] - path[i][0];
+			int dy = path[i + 1][1] - path[i][1];
+			assertEquals(1, Math.abs(dx) + Math.abs(dy));
+			assertTrue(grid.hasPassage(path[i][0], path[i][1], Maze.directionTo(path[i], path[i + 1])));
+		}
+	}
+
+	@Test
+	public void corridorsAreContracted() {
+		// An L-shaped corridor from 0, 0 up to 0, 2 and across to 2, 2, with a
+		// branch from 0, 1 to 1, 1
+		MazeGrid grid = new MazeGrid(3);
+		grid.addPassage(0, 0, Maze.NORTH);
+		grid.addPassage(0, 1, Maze.NORTH);
+		grid.addPassage(0, 1, Maze.EAST);
+		grid.addPassage(0, 2, Maze.EAST);
+		grid.addPassage(1, 2, Maze.EAST);
+		JunctionGraph graph = new JunctionGraph(grid);
+		// Junction 0, 1, dead ends 0, 0, 1, 1 and 2, 2, and three unreached locations
+		assertEquals(7, graph.getNodeCount());
+		assertEquals(3, graph.getCorridorCount());
+		int junction = graph.nodeAt(grid.cell(0, 1));
+		assertEquals(3, graph.degree(junction));
+		int corridor = graph.corridorAt(grid.cell(1, 2));
+		assertEquals(3, graph.length(corridor));
+		assertEquals(-1, graph.nodeAt(grid.cell(0, 2)));
+	}
+
+	@Test
+	public void pathsMatchBreadthFirstSearch() {
+		MazeGrid grid = new MazeGrid(60, 40);
+		new MazeGenerator(grid, 0, 0, 11L).generate();
+		JunctionSolver solver = new JunctionSolver(new JunctionGraph(grid));
+		BreadthFirstSolver breadthFirst = new BreadthFirstSolver();
+		SplittableRandom random = new SplittableRandom(4);
+		for (int i = 0; i < 300; i++) {
+			int[] start = { random.nextInt(60), random.nextInt(40) };
+			int[] goal = { random.nextInt(60), random.nextInt(40) };
+			MazeSolution expected = breadthFirst.solve(grid, start, goal);
+			MazeSolution solution = solver.solve(grid, start, goal);
+			assertEquals(Arrays.deepToString(expected.getPath()), Arrays.deepToString(solution.getPath()));
+			assertTrue(solution.getExpandedCount() <= expected.getExpandedCount());
+		}
+	}
+
+	@Test
+	public void loopsAndOpenAreasGiveShortestPaths() {
+		MazeGrid grid = MazeTestSupport.open(8);
+		// Wall off a ring around the middle, leaving a loop with no junctions
+		for (int x = 2; x < 6; x++) {
+			for (int y = 2; y < 6; y++) {
+				for (int d = 0; d < 4; d++) {
+					if (grid.hasPassage(x, y, d)) {
+						grid.removePassage(x, y, d);
+					}
+				}
+			}
+		}
+		for (int i = 2; i < 5; i++) {
+			grid.addPassage(i, 2, Maze.EAST);
+			grid.addPassage(i, 5, Maze.EAST);
+			grid.addPassage(2, i, Maze.NORTH);
+			grid.addPassage(5, i, Maze.NORTH);
+		}
+		JunctionSolver solver = new JunctionSolver(new JunctionGraph(grid));
+		BreadthFirstSolver breadthFirst = new BreadthFirstSolver();
+		for (int[] start : new int[][] { { 0, 0 }, { 3, 2 }, { 2, 4 }, { 7, 3 } }) {
+			for (int[] goal : new int[][] { { 7, 7 }, { 5, 3 }, { 2, 2 }, { 3, 5 }, { 0, 4 } }) {
+				int[][] expected = breadthFirst.solve(grid, start, goal).getPath();
+				MazeSolution solution = solver.solve(grid, start, goal);
+				if (expected == null) {
+					assertFalse(solution.isSolved());
+				} else {
+					assertValidPath(grid, start, goal, expected.length - 1, solution.getPath());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void startAndGoalInSameCorridor() {
+		MazeGrid grid = new MazeGrid(1, 6);
+		for (int y = 0; y < 5; y++) {
+			grid.addPassage(0, y, Maze.NORTH);
+		}
+		JunctionSolver solver = new JunctionSolver(new JunctionGraph(grid));
+		assertEquals("[[0, 4], [0, 3], [0, 2]]",
+				Arrays.deepToString(solver.solve(grid, new int[] { 0, 4 }, new int[] { 0, 2 }).getPath()));
+		assertEquals("[[0, 1], [0, 2], [0, 3]]",
+				Arrays.deepToString(solver.solve(grid, new int[] { 0, 1 }, new int[] { 0, 3 }).getPath()));
+		assertEquals("[[0, 3]]",
+				Arrays.deepToString(solver.solve(grid, new int[] { 0, 3 }, new int[] { 0, 3 }).getPath()));
+	}
+
+	@Test
+	public void largeMazesExpandFewerNodes() {
+		MazeGrid grid = new MazeGrid(300);
+		new MazeGenerator(grid, 0, 0, 2L).generate();
+		JunctionGraph graph = new JunctionGraph(grid);
+		assertTrue(graph.getNodeCount() < 300 * 300 / 2);
+		int[] start = { 0, 0 };
+		int[] goal = { 299, 299 };
+		MazeSolution expected = new AStarSolver().solve(grid, start, goal);
+		MazeSolution solution = new JunctionSolver(graph).solve(grid, start, goal);
+		assertEquals(expected.getPath().length, solution.getPath().length);
+		assertTrue(solution.getExpandedCount() < expected.getExpandedCount() / 2);
+	}
+
+}
@@ -0,0 +1,165 @@
+/**
+ * Solves a maze by A* search over its JunctionGraph instead of over single
+ * locations, using the Manhattan distance to the goal as the heuristic. A
+ * corridor is crossed in one step however long it is, and corridors that end
+ * in a dead end are never entered unless the goal lies in them, so on large
+ * perfect mazes only a small fraction of the locations a location-by-location
+ * search would expand are ever looked at. The path found is always a shortest
+ * one, and corridors are walked only to spell it out.
+ */
+public class JunctionSolver implements MazeSolver {
+
+	/** The contracted maze. */
+	private final JunctionGraph graph;
+
+	/**
+	 * Reached nodes, the length of the shortest known path from start to each,
+	 * and the node from which each was reached, or -1 if it was reached
+	 * directly from start.
+	 */
+	private final SearchState state = new SearchState();
+
+	/**
+	 * arrival[n] is the corridor end by which n was reached, or -1 if start
+	 * and goal lie in the same corridor and n is the goal.
+	 */
+	private int[] arrival = new int[0];
+
+	/** Nodes to expand, each with the estimated total length of a path through it as its priority. */
+	private final MinHeap heap = new MinHeap();
+
+	/** Creates a solver for the maze graph was built from. */
+	public JunctionSolver(JunctionGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Returns the path from start to goal. The expanded count is the number of
+	 * nodes of the graph that were expanded. Throws an exception if grid is not
+	 * the maze the graph was built from.
+	 */
+	@Override
+	public MazeSolution solve(MazeGrid grid, int[] start, int[] goal) {
+		if (grid != graph.getGrid()) {
+			throw new IllegalArgumentException("JunctionSolver can only solve the maze its graph was built from");
+		}
+		int startCell = grid.cell(start[Maze.X], start[Maze.Y]);
+		int goalCell = grid.cell(goal[Maze.X], goal[Maze.Y]);
+		if (startCell == goalCell) {
+			return MazeMetrics.solved(this, new MazeSolution(new int[][] { start.clone() }, 0), 0, 0);
+		}
+		int nodes = graph.getNodeCount();
+		state.reset(nodes + 1);
+		if (arrival.length < nodes + 1) {
+			arrival = new int[nodes + 1];
+		}
+		// A goal inside a corridor is represented by an extra node, reached
+		// from either end of its corridor
+		int goalNode = graph.nodeAt(goalCell);
+		int goalCorridor = -1;
+		if (goalNode < 0) {
+			goalNode = nodes;
+			goalCorridor = graph.corridorAt(goalCell);
+		}
+		int goalX = goal[Maze.X];
+		int goalY = goal[Maze.Y];
+		heap.clear();
+		int startNode = graph.nodeAt(startCell);
+		if (startNode >= 0) {
+			reach(startNode, 0, -1, -1, goalNode, goalX, goalY);
+		} else {
+			int corridor = graph.corridorAt(startCell);
+			int startOffset = graph.offset(startCell);
+			reach(graph.endNode(2 * corridor), startOffset, -1, 2 * corridor, goalNode, goalX, goalY);
+			reach(graph.endNode(2 * corridor + 1), graph.length(corridor) - startOffset, -1, 2 * corridor + 1,
+					goalNode, goalX, goalY);
+			if (corridor == goalCorridor) {
+				reach(goalNode, Math.abs(graph.offset(goalCell) - startOffset), -1, -1, goalNode, goalX, goalY);
+			}
+		}
+		int expanded = 0;
+		int maxHeapSize = heap.size();
+		while (!heap.isEmpty()) {
+			long entry = heap.pop();
+			int here = MinHeap.numberOf(entry);
+			int g = state.distanceTo(here);
+			if (MinHeap.priorityOf(entry) != g + estimate(here, goalNode, goalX, goalY)) {
+				// A shorter way to here was found after this entry was added
+				continue;
+			}
+			expanded++;
+			if (here == goalNode) {
+				int[][] path = pathTo(grid, startCell, goalCell, goalNode);
+				return MazeMetrics.solved(this, new MazeSolution(path, expanded), 0, maxHeapSize);
+			}
+			for (int i = graph.firstEnd(here); i < graph.firstEnd(here + 1); i++) {
+				int end = graph.nodeEnd(i);
+				int corridor = end >>> 1;
+				if (corridor == goalCorridor) {
+					// Stop partway along the corridor, at the goal
+					int offset = graph.offset(goalCell);
+					reach(goalNode, g + ((end & 1) == 0 ? offset : graph.length(corridor) - offset), here, end ^ 1,
+							goalNode, goalX, goalY);
+				} else {
+					reach(graph.endNode(end ^ 1), g + graph.length(corridor), here, end ^ 1, goalNode, goalX, goalY);
+				}
+			}
+			maxHeapSize = Math.max(maxHeapSize, heap.size());
+		}
+		return MazeMetrics.solved(this, new MazeSolution(null, expanded), 0, maxHeapSize);
+	}
+
+	/**
+	 * Records that node n can be reached with a path of length g, from node
+	 * from by corridor end end, unless a path at least as short is already
+	 * known. Dead ends other than the start and goal lead nowhere, so they are
+	 * skipped.
+	 */
+	private void reach(int n, int g, int from, int end, int goalNode, int goalX, int goalY) {
+		if (n != goalNode && end >= 0 && graph.degree(n) == 1) {
+			return;
+		}
+		if (state.isReached(n) && state.distanceTo(n) <= g) {
+			return;
+		}
+		state.reach(n, from, g);
+		arrival[n] = end;
+		heap.push(g + estimate(n, goalNode, goalX, goalY), n);
+	}
+
+	/** Returns the Manhattan distance from node n to the goal. */
+	private int estimate(int n, int goalNode, int goalX, int goalY) {
+		if (n == goalNode) {
+			return 0;
+		}
+		MazeGrid grid = graph.getGrid();
+		int cell = graph.nodeCell(n);
+		return Math.abs(grid.cellX(cell) - goalX) + Math.abs(grid.cellY(cell) - goalY);
+	}
+
+	/** Returns the path from start to goal, spelled out by walking the corridors it crosses. */
+	private int[][] pathTo(MazeGrid grid, int startCell, int goalCell, int goalNode) {
+		int[][] path = new int[state.distanceTo(goalNode) + 1][];
+		path[0] = new int[] { grid.cellX(startCell), grid.cellY(startCell) };
+		// Fill in each leg backward from the goal, ending where it left off
+		int n = goalNode;
+		while (true) {
+			int from = state.parentOf(n);
+			int end = arrival[n];
+			int fromCell = from < 0 ? startCell : graph.nodeCell(from);
+			int at = from < 0 ? 1 : state.distanceTo(from) + 1;
+			int steps = state.distanceTo(n) - (from < 0 ? 0 : state.distanceTo(from));
+			if (steps > 0) {
+				if (end < 0) {
+					// Start and goal are in the same corridor
+					end = graph.offset(goalCell) > graph.offset(startCell) ? 1 : 0;
+				}
+				graph.walk(fromCell, end, steps, path, at);
+			}
+			if (from < 0) {
+				return path;
+			}
+			n = from;
+		}
+	}
+}
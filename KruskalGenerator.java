@@ -0,0 +1,148 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates a perfect maze with Kruskal's algorithm: every wall between two
+ * neighboring locations is a candidate, the candidates are shuffled, and a
+ * wall is opened into a passage if the locations on either side of it are not
+ * yet connected. The shuffled walls are split into batches that run on a
+ * ForkJoinPool, and the batches share a ConcurrentUnionFind, so the only
+ * coordination between them is its compare-and-set. A passage is opened only
+ * by a successful union, which joins two sets that were not connected, so the
+ * result is connected and has no cycles however the batches are scheduled.
+ *
+ * <p>
+ * Which of two walls racing to join the same pair of sets wins does depend
+ * on scheduling, so the same seed gives the same maze only when the pool has
+ * a parallelism of 1.
+ */
+public class KruskalGenerator {
+
+	/** The number of walls in a batch when none is given. */
+	public static final int DEFAULT_BATCH_SIZE = 1 << 14;
+
+	/** Wall w joins location w / 2 to its north neighbor if w is even, and to its east neighbor if odd. */
+	private static final int EAST_WALL = 1;
+
+	/** The pool on which batches are run. */
+	private final ForkJoinPool pool;
+
+	/** The number of walls each task handles without splitting. */
+	private final int batchSize;
+
+	/** Creates a generator that uses the common pool and the default batch size. */
+	public KruskalGenerator() {
+		this(ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+	}
+
+	/** Creates a generator that runs batches of batchSize walls on pool. */
+	public KruskalGenerator(ForkJoinPool pool, int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		this.pool = pool;
+		this.batchSize = batchSize;
+	}
+
+	/** Generates a maze in grid, which is assumed to have no passages yet. */
+	public void generate(MazeGrid grid) {
+		generate(grid, new SplittableRandom());
+	}
+
+	/** Like generate above, but makes its random choices with a generator seeded with seed. */
+	public void generate(MazeGrid grid, long seed) {
+		generate(grid, new SplittableRandom(seed));
+	}
+
+	/**
+	 * Like generate above, but shuffles the walls with random. Use
+	 * grid.toPassages() for the boolean[][][] form that Maze.drawMaze takes.
+	 */
+	public void generate(MazeGrid grid, SplittableRandom random) {
+		int cells = grid.getCellCount();
+		if (cells > Integer.MAX_VALUE / 2) {
+			throw new IllegalArgumentException("Maze has too many locations to number its walls: " + cells);
+		}
+		int[] walls = shuffledWalls(grid, random);
+		pool.invoke(new BatchTask(grid, new ConcurrentUnionFind(cells), walls, 0, walls.length));
+	}
+
+	/** Returns every wall between two locations in grid, in random order. */
+	private static int[] shuffledWalls(MazeGrid grid, SplittableRandom random) {
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		int[] walls = new int[(width - 1) * height + width * (height - 1)];
+		int count = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				int cell = grid.cell(x, y);
+				if (y + 1 < height) {
+					// Shuffle as we go: put the new wall at a random position
+					// and move the one there to the end
+					int j = random.nextInt(count + 1);
+					walls[count] = walls[j];
+					walls[j] = 2 * cell;
+					count++;
+				}
+				if (x + 1 < width) {
+					int j = random.nextInt(count + 1);
+					walls[count] = walls[j];
+					walls[j] = 2 * cell + EAST_WALL;
+					count++;
+				}
+			}
+		}
+		return walls;
+	}
+
+	/**
+	 * Opens each wall in a range of the shuffled walls whose two sides are not
+	 * yet connected, splitting the range in parallel.
+	 */
+	private class BatchTask extends RecursiveAction {
+
+		/** The version of the serialized form. */
+		private static final long serialVersionUID = 1L;
+
+		/** The maze being generated. */
+		private final MazeGrid grid;
+
+		/** Which locations are connected so far. */
+		private final ConcurrentUnionFind sets;
+
+		/** The shuffled walls. */
+		private final int[] walls;
+
+		/** The first wall (inclusive) in this task's range. */
+		private final int from;
+
+		/** The last wall (exclusive) in this task's range. */
+		private final int to;
+
+		BatchTask(MazeGrid grid, ConcurrentUnionFind sets, int[] walls, int from, int to) {
+			this.grid = grid;
+			this.sets = sets;
+			this.walls = walls;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= batchSize) {
+				int height = grid.getHeight();
+				for (int i = from; i < to; i++) {
+					int cell = walls[i] >>> 1;
+					boolean east = (walls[i] & EAST_WALL) != 0;
+					if (sets.union(cell, east ? cell + height : cell + 1)) {
+						grid.addPassageConcurrently(grid.cellX(cell), grid.cellY(cell), east ? Maze.EAST : Maze.NORTH);
+					}
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new BatchTask(grid, sets, walls, from, middle), new BatchTask(grid, sets, walls, middle, to));
+			}
+		}
+	}
+}
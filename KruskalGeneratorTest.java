@@ -0,0 +1,79 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class KruskalGeneratorTest {
+
+	@Test
+	public void generateBuildsPerfectMaze() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (long seed = 0; seed < 5; seed++) {
+				MazeGrid grid = new MazeGrid(90, 60);
+				new KruskalGenerator(pool, 64).generate(grid, seed);
+				// A connected maze with one passage fewer than locations has no cycles
+				assertEquals(90 * 60 - 1, MazeTestSupport.countPassages(grid));
+				assertEquals(1, new DynamicMaze(grid).getComponentCount());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void generateIsReproducibleOnOneThread() {
+		ForkJoinPool pool = new ForkJoinPool(1);
+		try {
+			MazeGrid a = new MazeGrid(40, 30);
+			MazeGrid b = new MazeGrid(40, 30);
+			new KruskalGenerator(pool, 100).generate(a, 9L);
+			new KruskalGenerator(pool, 100).generate(b, 9L);
+			assertEquals(a, b);
+			int[][] path = Maze.solve(a, new int[] { 0, 0 }, new int[] { 39, 29 });
+			assertNotNull(path);
+			assertEquals(Arrays.deepToString(path),
+					Arrays.deepToString(Maze.solve(a.toPassages(), new int[] { 0, 0 }, new int[] { 39, 29 })));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void generateHandlesThinMazes() {
+		MazeGrid row = new MazeGrid(50, 1);
+		new KruskalGenerator().generate(row);
+		assertEquals(49, MazeTestSupport.countPassages(row));
+		MazeGrid single = new MazeGrid(1, 1);
+		new KruskalGenerator().generate(single);
+		assertEquals(0, MazeTestSupport.countPassages(single));
+	}
+
+	@Test
+	public void unionFindMergesEachPairOnce() throws InterruptedException {
+		ConcurrentUnionFind sets = new ConcurrentUnionFind(1000);
+		int[] merges = new int[4];
+		Thread[] threads = new Thread[merges.length];
+		for (int t = 0; t < threads.length; t++) {
+			int id = t;
+			threads[t] = new Thread(() -> {
+				// Every thread tries the same unions, in a different order
+				for (int i = 0; i < 999; i++) {
+					int a = (i * (id + 1) * 7) % 999;
+					if (sets.union(a, a + 1)) {
+						merges[id]++;
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(999, merges[0] + merges[1] + merges[2] + merges[3]);
+		assertTrue(sets.isSameSet(0, 999));
+		assertEquals(sets.find(0), sets.find(999));
+	}
+
+}
@@ -0,0 +1,138 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Solves mazes of any size, including BufferMazeGrids with more than
+ * Integer.MAX_VALUE locations, which have no int cell numbers and are too big
+ * for the arrays the other solvers keep. The search is depth first, trying
+ * directions in the same order as DepthFirstSolver and finding the same path,
+ * but instead of a stack it keeps only four bits per location, in direct
+ * buffers outside the heap: whether the location has been reached, and the
+ * direction back to the location it was reached from. Backing up follows that
+ * direction, and the search resumes with the direction after the one just
+ * backed out of. Bits are addressed by long location numbers, x * height + y.
+ */
+public class LargeMazeSolver implements MazeSolver {
+
+	/** Set in a location's bits once it has been reached. */
+	private static final int REACHED = 4;
+
+	/** The low two bits of a location hold the direction back to its predecessor. */
+	private static final int DIRECTION_MASK = 3;
+
+	/** The search bits, two locations to a byte, BufferMazeGrid.CHUNK_BYTES to a buffer. */
+	private ByteBuffer[] chunks = new ByteBuffer[0];
+
+	/** The number of bytes in chunks. */
+	private long capacity;
+
+	@Override
+	public MazeSolution solve(MazeGrid grid, int[] start, int[] goal) {
+		int height = grid.getHeight();
+		reset((long) grid.getWidth() * height);
+		int x = start[Maze.X];
+		int y = start[Maze.Y];
+		set((long) x * height + y, REACHED);
+		long depth = 0;
+		long maxDepth = 0;
+		long expanded = 1;
+		long backtracks = 0;
+		int d = 0;
+		while (true) {
+			if (x == goal[Maze.X] && y == goal[Maze.Y]) {
+				MazePath path = pathTo(grid, x, y, depth);
+				return MazeMetrics.solved(this, MazeSolution.of(path, saturate(expanded)), saturate(backtracks),
+						saturate(maxDepth + 1));
+			}
+			while (d < 4 && !canEnter(grid, x, y, d)) {
+				d++;
+			}
+			if (d < 4) {
+				// Step forward, remembering the way back
+				x += Maze.OFFSETS[d][Maze.X];
+				y += Maze.OFFSETS[d][Maze.Y];
+				set((long) x * height + y, REACHED | ((d + 2) % 4));
+				d = 0;
+				depth++;
+				expanded++;
+				maxDepth = Math.max(maxDepth, depth);
+			} else {
+				// Nope -- back up and try the direction after the one that led here
+				backtracks++;
+				if (depth == 0) {
+					return MazeMetrics.solved(this, new MazeSolution(null, saturate(expanded)), saturate(backtracks),
+							saturate(maxDepth + 1));
+				}
+				int back = get((long) x * height + y) & DIRECTION_MASK;
+				x += Maze.OFFSETS[back][Maze.X];
+				y += Maze.OFFSETS[back][Maze.Y];
+				d = (back + 2) % 4 + 1;
+				depth--;
+			}
+		}
+	}
+
+	/** Returns true if the location in direction from x, y can be reached from it and has not been yet. */
+	private boolean canEnter(MazeGrid grid, int x, int y, int direction) {
+		return grid.hasPassage(x, y, direction) && (get((long) (x + Maze.OFFSETS[direction][Maze.X])
+				* grid.getHeight() + y + Maze.OFFSETS[direction][Maze.Y]) & REACHED) == 0;
+	}
+
+	/** Returns the path of steps steps that the search took to reach x, y, by following the ways back. */
+	private MazePath pathTo(MazeGrid grid, int x, int y, long steps) {
+		if (steps > Integer.MAX_VALUE - 1) {
+			throw new IllegalStateException("Path has too many steps for a MazePath: " + steps);
+		}
+		long[] directions = MazePath.newDirections((int) steps);
+		for (int i = (int) steps - 1; i >= 0; i--) {
+			int back = get((long) x * grid.getHeight() + y) & DIRECTION_MASK;
+			MazePath.setDirection(directions, i, (back + 2) % 4);
+			x += Maze.OFFSETS[back][Maze.X];
+			y += Maze.OFFSETS[back][Maze.Y];
+		}
+		return new MazePath(x, y, (int) steps, directions);
+	}
+
+	/** Makes room for the bits of the given number of locations and clears them. */
+	private void reset(long locations) {
+		long bytes = (locations + 1) / 2;
+		if (capacity < bytes) {
+			chunks = new ByteBuffer[BufferMazeGrid.getChunkCount(bytes)];
+			for (int i = 0; i < chunks.length; i++) {
+				chunks[i] = ByteBuffer.allocateDirect(
+						(int) Math.min(BufferMazeGrid.CHUNK_BYTES, bytes - i * BufferMazeGrid.CHUNK_BYTES));
+			}
+			capacity = bytes;
+			return;
+		}
+		for (int i = 0; i < chunks.length && i * BufferMazeGrid.CHUNK_BYTES < bytes; i++) {
+			int end = (int) Math.min(chunks[i].capacity(), bytes - i * BufferMazeGrid.CHUNK_BYTES);
+			int index = 0;
+			for (; index + Long.BYTES <= end; index += Long.BYTES) {
+				chunks[i].putLong(index, 0);
+			}
+			for (; index < end; index++) {
+				chunks[i].put(index, (byte) 0);
+			}
+		}
+	}
+
+	/** Returns the four bits of location number location. */
+	private int get(long location) {
+		long offset = location >>> 1;
+		ByteBuffer chunk = chunks[(int) (offset >>> BufferMazeGrid.CHUNK_SHIFT)];
+		return (chunk.get((int) (offset & (BufferMazeGrid.CHUNK_BYTES - 1))) >>> (4 * (int) (location & 1))) & 15;
+	}
+
+	/** Sets the four bits of location number location, which must still be clear, to bits. */
+	private void set(long location, int bits) {
+		long offset = location >>> 1;
+		ByteBuffer chunk = chunks[(int) (offset >>> BufferMazeGrid.CHUNK_SHIFT)];
+		int index = (int) (offset & (BufferMazeGrid.CHUNK_BYTES - 1));
+		chunk.put(index, (byte) (chunk.get(index) | bits << (4 * (int) (location & 1))));
+	}
+
+	/** Returns count, or Integer.MAX_VALUE if it is bigger. */
+	private static int saturate(long count) {
+		return (int) Math.min(count, Integer.MAX_VALUE);
+	}
+}
@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+public class LargeMazeSolverTest {
+
+	@Test
+	public void matchesDepthFirst() {
+		MazeGrid grid = new MazeGrid(60, 45);
+		new MazeGenerator(grid, 0, 0, 4L).generate();
+		grid.addPassage(10, 10, Maze.NORTH);
+		grid.addPassage(30, 20, Maze.EAST);
+		DepthFirstSolver depthFirst = new DepthFirstSolver();
+		LargeMazeSolver solver = new LargeMazeSolver();
+		SplittableRandom random = new SplittableRandom(5L);
+		for (int i = 0; i < 50; i++) {
+			int[] start = { random.nextInt(60), random.nextInt(45) };
+			int[] goal = { random.nextInt(60), random.nextInt(45) };
+			MazeSolution expected = depthFirst.solve(grid, start, goal);
+			MazeSolution solution = solver.solve(grid, start, goal);
+			assertEquals(expected.getMazePath(), solution.getMazePath());
+			assertEquals(expected.getExpandedCount(), solution.getExpandedCount());
+		}
+	}
+
+	@Test
+	public void solvesMazesOutsideTheHeap() {
+		BufferMazeGrid grid = BufferMazeGrid.allocate(33, 17);
+		new EllerGenerator(33, 17, 8L).generate(grid);
+		MazeGrid copy = new MazeGrid(33, 17);
+		new EllerGenerator(33, 17, 8L).generate(copy);
+		assertEquals(copy, grid);
+		int[] start = { 32, 0 };
+		int[] goal = { 0, 16 };
+		assertEquals(Arrays.deepToString(Maze.solve(copy, start, goal)),
+				Arrays.deepToString(new LargeMazeSolver().solve(grid, start, goal).getPath()));
+	}
+
+	@Test
+	public void reportsWhenThereIsNoPath() {
+		MazeGrid grid = new MazeGrid(4);
+		grid.addPassage(0, 0, Maze.NORTH);
+		grid.addPassage(0, 1, Maze.EAST);
+		LargeMazeSolver solver = new LargeMazeSolver();
+		MazeSolution solution = solver.solve(grid, new int[] { 0, 0 }, new int[] { 3, 3 });
+		assertFalse(solution.isSolved());
+		assertEquals(3, solution.getExpandedCount());
+		// The bits from the last search must not leak into the next one
+		solution = solver.solve(grid, new int[] { 1, 1 }, new int[] { 0, 0 });
+		assertEquals("[[1, 1], [0, 1], [0, 0]]", Arrays.deepToString(solution.getPath()));
+		assertEquals("[[2, 2]]", Arrays.deepToString(solver.solve(grid, new int[] { 2, 2 }, new int[] { 2, 2 })
+				.getPath()));
+	}
+
+}
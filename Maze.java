@@ -1,4 +1,8 @@
 import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
 
 /** Generates, displays, and solves a maze. */
 public class Maze {
@@ -27,6 +31,22 @@ public class Maze {
 	 */
 	public static final int[][] OFFSETS = { { 0, 1 }, { 1, 0 }, { 0, -1 }, { -1, 0 } };
 
+	/**
+	 * The global StdRandom generator, for the methods that do not take a
+	 * source of randomness of their own.
+	 */
+	private static final RandomGenerator STD_RANDOM = new RandomGenerator() {
+		@Override
+		public long nextLong() {
+			return (StdRandom.uniform(1L << 32) << 32) | StdRandom.uniform(1L << 32);
+		}
+
+		@Override
+		public int nextInt(int bound) {
+			return StdRandom.uniform(bound);
+		}
+	};
+
 
 	/**
 	 * Modifies passage to contain a one-way passage from location a to location
@@ -70,6 +90,15 @@ public class Maze {
 		}
 	}
 
+	/**
+	 * Modifies grid to contain a passage between location a and location b.
+	 * These locations are arrays of two numbers, x and y. Assumes these two
+	 * locations are adjacent.
+	 */
+	public static void addPassage(MazeGrid grid, int[] a, int[] b) {
+		grid.addPassage(a[X], a[Y], directionTo(a, b));
+	}
+
 	/**
 	 * Returns a new array of pairs containing start followed by all of the
 	 * elements in list.
@@ -97,15 +126,34 @@ public class Maze {
 	 * Returns a random one of the first n elements of list, or null, if n is 0.
 	 */
 	public static int[] chooseRandomlyFrom(int[][] list, int n) {
+		return chooseRandomlyFrom(list, n, STD_RANDOM);
+	}
+
+	/**
+	 * Like chooseRandomlyFrom above, but makes the choice with random instead
+	 * of the global StdRandom.
+	 */
+	public static int[] chooseRandomlyFrom(int[][] list, int n, RandomGenerator random) {
 		if (n == 0) {
 			return null;
 		}
 		else {
-			int randomNum = StdRandom.uniform(n);
+			int randomNum = random.nextInt(n);
 			return list[randomNum];
 		}
 	}
 
+	/**
+	 * Like chooseRandomlyFrom above, but for a list of cell numbers. Returns
+	 * -1 if n is 0.
+	 */
+	public static int chooseRandomlyFrom(int[] list, int n, RandomGenerator random) {
+		if (n == 0) {
+			return -1;
+		}
+		return list[random.nextInt(n)];
+	}
+
 	/**
 	 * Returns the first index of the location of pair in the first n elements
 	 * of list, or -1 if it does not appear. pair is assumed to be an array of
@@ -135,6 +183,35 @@ public class Maze {
 		return -1;
 	}
 
+	/**
+	 * Like contains above, but searches a list of cell numbers for the cell
+	 * number cell.
+	 */
+	public static int contains(int cell, int[] list, int n) {
+		for (int i = 0; i < n; i++) {
+			if (list[i] == cell) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the direction (NORTH, EAST, SOUTH, or WEST) in which b lies from
+	 * a. Assumes these two locations are adjacent.
+	 */
+	public static int directionTo(int[] a, int[] b) {
+		if (a[X] > b[X]) {
+			return WEST;
+		} else if (b[X] > a[X]) {
+			return EAST;
+		} else if (a[Y] > b[Y]) {
+			return SOUTH;
+		} else {
+			return NORTH;
+		}
+	}
+
 	/**
 	 * Graphically draws the maze.
 	 * 
@@ -165,6 +242,31 @@ public class Maze {
 		StdDraw.show();
 	}
 
+	/**
+	 * Graphically draws the maze stored in grid.
+	 */
+	public static void drawMaze(MazeGrid grid) {
+		StdDraw.clear(StdDraw.PINK);
+		StdDraw.setPenColor(StdDraw.WHITE);
+		int width = grid.getWidth();
+		StdDraw.setPenRadius(0.75 / width);
+		// Draw passages
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < width; y++) {
+				if (grid.hasPassage(x, y, NORTH)) {
+					StdDraw.line(x, y, x, y + 1);
+				}
+				if (grid.hasPassage(x, y, EAST)) {
+					StdDraw.line(x, y, x + 1, y);
+				}
+			}
+		}
+		// Draw entrance and exit
+		StdDraw.line(0, 0, -1, 0);
+		StdDraw.line(width - 1, width - 1, width, width - 1);
+		StdDraw.show();
+	}
+
 	/**
 	 * Graphically draws the solution.
 	 */
@@ -179,6 +281,25 @@ public class Maze {
 		StdDraw.show();
 	}
 
+	/**
+	 * Like drawSolution above, but walks a MazePath with a cursor instead of
+	 * reading an array of pairs.
+	 */
+	public static void drawSolution(MazePath path, int width) {
+		StdDraw.setPenColor(); // Black by default
+		StdDraw.setPenRadius();
+		StdDraw.line(0, 0, -1, 0);
+		StdDraw.line(width - 1, width - 1, width, width - 1);
+		MazePath.Cursor cursor = path.cursor();
+		while (cursor.hasNext()) {
+			int x = cursor.getX();
+			int y = cursor.getY();
+			cursor.next();
+			StdDraw.line(x, y, cursor.getX(), cursor.getY());
+		}
+		StdDraw.show();
+	}
+
 	/**
 	 * Checks if here's neighbor in direction (called there) is in unexplored.
 	 * If so, adds a passage from here to there and returns there. If not,
@@ -217,6 +338,45 @@ public class Maze {
 		return null;
 	}
 
+	/**
+	 * Like expandLocation above, but adds the passage to grid.
+	 */
+	public static int[] expandLocation(MazeGrid grid, int[][] unexplored, int n, int[] here, int direction) {
+		int[] there = new int[2];
+		// Find the neighboring point
+		there[X] = here[X] + OFFSETS[direction][X];
+		there[Y] = here[Y] + OFFSETS[direction][Y];
+
+		// Checking to see if there is in unexplored
+		if (contains(there, unexplored, n) >= 0) {
+			grid.addPassage(here[X], here[Y], direction);
+			return there;
+		}
+		return null;
+	}
+
+	/**
+	 * Like expandLocation above, but with locations given as cell numbers (see
+	 * MazeGrid.cell), so nothing is allocated. Returns the cell number of
+	 * there, or -1 if there is not in unexplored.
+	 */
+	public static int expandLocation(MazeGrid grid, int[] unexplored, int n, int here, int direction) {
+		// Find the neighboring point
+		int thereX = grid.cellX(here) + OFFSETS[direction][X];
+		int thereY = grid.cellY(here) + OFFSETS[direction][Y];
+		if (!grid.isInside(thereX, thereY)) {
+			return -1;
+		}
+		int there = grid.cell(thereX, thereY);
+
+		// Checking to see if there is in unexplored
+		if (contains(there, unexplored, n) >= 0) {
+			grid.addPassage(grid.cellX(here), grid.cellY(here), direction);
+			return there;
+		}
+		return -1;
+	}
+
 	/**
 	 * Chooses "here" to be either lastExploredLocation (if it is not null) or a
 	 * random location in frontier. If possible, adds a passage from "here" to a
@@ -246,14 +406,24 @@ public class Maze {
 	 */
 	public static int[] expandMaze(boolean[][][] passages, int[][] done, int[][] frontier, int[][] unexplored,
 								   int[] counts, int[] lastExploredLocation) {
+		return expandMaze(passages, done, frontier, unexplored, counts, lastExploredLocation, STD_RANDOM);
+	}
+
+	/**
+	 * Like expandMaze above, but makes its random choices with random instead
+	 * of the global StdRandom, so that the same sequence of random numbers
+	 * always produces the same maze.
+	 */
+	public static int[] expandMaze(boolean[][][] passages, int[][] done, int[][] frontier, int[][] unexplored,
+								   int[] counts, int[] lastExploredLocation, RandomGenerator random) {
 		int[] here;
 		if (lastExploredLocation == null) {
-			here = chooseRandomlyFrom(frontier, counts[1]);
+			here = chooseRandomlyFrom(frontier, counts[1], random);
 		} else {
 			here = lastExploredLocation;
 		}
 		// Choose a random direction
-		int direction = StdRandom.uniform(4);
+		int direction = random.nextInt(4);
 		for (int i = 0; i < 4; i++) {
 			int[] there = expandLocation(passages, unexplored, counts[2], here, direction);
 			if (there != null) {
@@ -262,6 +432,7 @@ public class Maze {
 				counts[1]++;
 				remove(there, unexplored, counts[2]);
 				counts[2]--;
+				MazeMetrics.generationStep(i, counts[0], counts[1], counts[2]);
 				// We're done
 				return there;
 			}
@@ -272,45 +443,122 @@ public class Maze {
 		counts[0]++;
 		remove(here, frontier, counts[1]);
 		counts[1]--;
+		MazeMetrics.generationStep(4, counts[0], counts[1], counts[2]);
 		return null;
 	}
 
-	/** Draws and then solves a maze. */
+	/**
+	 * Like expandMaze above, but adds passages to grid.
+	 */
+	public static int[] expandMaze(MazeGrid grid, int[][] done, int[][] frontier, int[][] unexplored,
+								   int[] counts, int[] lastExploredLocation) {
+		return expandMaze(grid, done, frontier, unexplored, counts, lastExploredLocation, STD_RANDOM);
+	}
+
+	/**
+	 * Like expandMaze above, but makes its random choices with random instead
+	 * of the global StdRandom.
+	 */
+	public static int[] expandMaze(MazeGrid grid, int[][] done, int[][] frontier, int[][] unexplored,
+								   int[] counts, int[] lastExploredLocation, RandomGenerator random) {
+		int[] here;
+		if (lastExploredLocation == null) {
+			here = chooseRandomlyFrom(frontier, counts[1], random);
+		} else {
+			here = lastExploredLocation;
+		}
+		// Choose a random direction
+		int direction = random.nextInt(4);
+		for (int i = 0; i < 4; i++) {
+			int[] there = expandLocation(grid, unexplored, counts[2], here, direction);
+			if (there != null) {
+				// Move there from unexplored to frontier
+				frontier[counts[1]] = there;
+				counts[1]++;
+				remove(there, unexplored, counts[2]);
+				counts[2]--;
+				MazeMetrics.generationStep(i, counts[0], counts[1], counts[2]);
+				// We're done
+				return there;
+			}
+			direction = (direction + 1) % 4;
+		}
+		// No valid neighbor was found. Move here from frontier to done.
+		done[counts[0]] = here;
+		counts[0]++;
+		remove(here, frontier, counts[1]);
+		counts[1]--;
+		MazeMetrics.generationStep(4, counts[0], counts[1], counts[2]);
+		return null;
+	}
+
+	/**
+	 * Like expandMaze above, but the lists hold cell numbers (see
+	 * MazeGrid.cell) instead of pairs, and lastExplored is a cell number or -1.
+	 * Returns the cell number of the newly explored location, or -1. Nothing is
+	 * allocated, so a whole maze can be generated without creating garbage.
+	 */
+	public static int expandMaze(MazeGrid grid, int[] done, int[] frontier, int[] unexplored, int[] counts,
+			int lastExplored, RandomGenerator random) {
+		int here;
+		if (lastExplored < 0) {
+			here = chooseRandomlyFrom(frontier, counts[1], random);
+		} else {
+			here = lastExplored;
+		}
+		// Choose a random direction
+		int direction = random.nextInt(4);
+		for (int i = 0; i < 4; i++) {
+			int there = expandLocation(grid, unexplored, counts[2], here, direction);
+			if (there >= 0) {
+				// Move there from unexplored to frontier
+				frontier[counts[1]] = there;
+				counts[1]++;
+				remove(there, unexplored, counts[2]);
+				counts[2]--;
+				MazeMetrics.generationStep(i, counts[0], counts[1], counts[2]);
+				// We're done
+				return there;
+			}
+			direction = (direction + 1) % 4;
+		}
+		// No valid neighbor was found. Move here from frontier to done.
+		done[counts[0]] = here;
+		counts[0]++;
+		remove(here, frontier, counts[1]);
+		counts[1]--;
+		MazeMetrics.generationStep(4, counts[0], counts[1], counts[2]);
+		return -1;
+	}
+
+	/**
+	 * Draws and then solves a maze. If a number is given as the first
+	 * argument, it is used as the seed, so the same maze can be drawn again.
+	 */
 	public static void main(String[] args) {
 		StdDraw.enableDoubleBuffering();
 		int width = 20;
 		StdDraw.setXscale(-0.5, width - 0.5);
 		StdDraw.setYscale(-0.5, width - 0.5);
 		StdDraw.show();
-		boolean[][][] passages = new boolean[width][width][4];
-		// Initially, no locations are done
-		int[][] done = new int[width * width][];
-		// The frontier only contains {0, 0}
-		int[][] frontier = new int[width * width][];
-		frontier[0] = new int[] { 0, 0 };
-		// All other locations are in unexplored
-		int[][] unexplored = new int[width * width][];
-		// Number of nodes done, on the frontier, and unexplored
-		int[] counts = { 0, 1, width * width - 1 };
-		int i = 0;
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < width; y++) {
-				if (x != 0 || y != 0) {
-					unexplored[i] = new int[] { x, y };
-					i++;
-				}
-			}
-		}
-		// As long as there are unexplored locations, expand the maze
-		int[] lastExploredLocation = null;
-		while (counts[2] > 0) {
-			lastExploredLocation = expandMaze(passages, done, frontier, unexplored, counts, lastExploredLocation);
-			drawMaze(passages);
-			StdDraw.show();
-			StdDraw.pause(25);
-		}
+		MazeGrid passages = new MazeGrid(width);
+		// Grow the maze from {0, 0} with a seeded generator, which could be
+		// checkpointed
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : new SplittableRandom().nextLong();
+		MazeGenerator generator = new MazeGenerator(passages, 0, 0, seed);
+		// Publish each new passage to the renderer, which draws it and shows
+		// 40 frames per second; generation waits whenever the renderer falls
+		// a few passages behind
+		MazeRenderer renderer = MazeRenderer.everyNthStep(width, 1, 40);
+		renderer.start();
+		GenerationPublisher events = new GenerationPublisher(ForkJoinPool.commonPool(), 1, 4);
+		CompletableFuture<Void> drawn = events.consume(renderer::batchAdded);
+		events.generate(generator);
+		drawn.join();
+		renderer.finish();
 		// Solve the maze
-		int[][] solution = solve(passages, new int[] { 0, 0 }, new int[] { width - 1, width - 1 });
+		MazePath solution = new DepthFirstSolver()
+				.solve(passages, new int[] { 0, 0 }, new int[] { width - 1, width - 1 }).getMazePath();
 		drawSolution(solution, width);
 	}
 
@@ -326,22 +574,34 @@ public class Maze {
 		int xVal = pair[0];
 		int yVal = pair[1];
 
-		// Getting the x and y value for the n-1 element
-		int xValN = list[n - 1][0];
-		int yValN = list[n - 1][1];
-
-		// Removing pair from list and replacing it with the (n-1)th element
+		// Replacing pair with the (n-1)th element. The array itself is moved, since
+		// the caller may have just stored pair somewhere else (such as in done).
 		for (int i = 0; i < n; i++) {
 			if ((list[i][0] == xVal) && (list[i][1] == yVal)) {
-				list[i][0] = xValN;
-				list[i][1] = yValN;
+				list[i] = list[n - 1];
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Like remove above, but removes the cell number cell from a list of cell
+	 * numbers.
+	 */
+	public static void remove(int cell, int[] list, int n) {
+		for (int i = 0; i < n; i++) {
+			if (list[i] == cell) {
+				list[i] = list[n - 1];
+				return;
 			}
 		}
 	}
 
 	/**
 	 * Returns a path (sequence of locations) leading from start to goal in
-	 * passages or null if there is no such path.
+	 * passages or null if there is no such path. A passage is only followed
+	 * from the location it is recorded at, as the original recursive version
+	 * did, and directions are tried in the same order.
 	 * 
 	 * @param passages
 	 *            passages[x][y][direction] is true if there is a passage from
@@ -349,21 +609,34 @@ public class Maze {
 	 *            specified by the constants NORTH, EAST, SOUTH, and WEST.
 	 */
 	public static int[][] solve(boolean[][][] passages, int[] start, int[] goal) {
-		// Base case: we're already at the goal
-		if ((start[X] == goal[X]) && (start[Y] == goal[Y])) {
-			return new int[][] { goal };
-		}
-		// Can we reach the goal from any of our neighbors?
-		for (int d = 0; d < 4; d++) {
-			if (passages[start[0]][start[1]][d]) {
-				int[] next = { start[X] + OFFSETS[d][X], start[Y] + OFFSETS[d][Y] };
-				int[][] restOfPath = solve(passages, next, goal);
-				if (restOfPath != null) {
-					return addToFront(start, restOfPath);
-				}
+		int width = passages.length;
+		int height = passages[0].length;
+		PassageLookup maze = new PassageLookup() {
+			@Override
+			public int getHeight() {
+				return height;
 			}
-		}
-		// Nope -- we can't get there from here
-		return null;
+
+			@Override
+			public int getCellCount() {
+				return width * height;
+			}
+
+			@Override
+			public boolean hasPassage(int x, int y, int direction) {
+				int thereX = x + OFFSETS[direction][X];
+				int thereY = y + OFFSETS[direction][Y];
+				return passages[x][y][direction] && thereX >= 0 && thereX < width && thereY >= 0 && thereY < height;
+			}
+		};
+		return new DepthFirstSolver().solve(maze, start, goal).getPath();
+	}
+
+	/**
+	 * Returns a path (sequence of locations) leading from start to goal in
+	 * grid or null if there is no such path.
+	 */
+	public static int[][] solve(MazeGrid grid, int[] start, int[] goal) {
+		return new DepthFirstSolver().solve(grid, start, goal).getPath();
 	}
 }
@@ -0,0 +1,268 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generates, solves, and serializes many mazes at once. Each maze is an
+ * independent task, run on a virtual thread where the Java runtime has them
+ * (Java 21 and later) and on a fixed pool of platform threads otherwise. At
+ * most maxConcurrency tasks run at a time. Finished mazes are passed to a
+ * Sink as they complete, and a Report of throughput and latency is returned
+ * at the end.
+ */
+public class MazeBatch {
+
+	/** Receives each finished maze. Calls are made one at a time, in the order the mazes finish. */
+	public interface Sink {
+
+		/** Receives a finished maze. */
+		void accept(Result result) throws IOException;
+	}
+
+	/** One generated, solved, and serialized maze. */
+	public static class Result {
+
+		/** The position of the maze in the batch, from 0. */
+		private final int index;
+
+		/** The seed the maze was generated from. */
+		private final long seed;
+
+		/** The maze in the MazeFile format. */
+		private final byte[] bytes;
+
+		/** The solution from the bottom left to the top right. */
+		private final MazeSolution solution;
+
+		/** Creates a result. */
+		Result(int index, long seed, byte[] bytes, MazeSolution solution) {
+			this.index = index;
+			this.seed = seed;
+			this.bytes = bytes;
+			this.solution = solution;
+		}
+
+		/** Returns the position of the maze in the batch, from 0. */
+		public int getIndex() {
+			return index;
+		}
+
+		/** Returns the seed the maze was generated from. */
+		public long getSeed() {
+			return seed;
+		}
+
+		/** Returns the maze in the MazeFile format. */
+		public byte[] getBytes() {
+			return bytes;
+		}
+
+		/** Returns the solution from the bottom left to the top right. */
+		public MazeSolution getSolution() {
+			return solution;
+		}
+	}
+
+	/** Throughput and latency of a batch. */
+	public static class Report {
+
+		/** The number of mazes produced. */
+		private final int count;
+
+		/** The time from starting the batch to finishing its last maze. */
+		private final long elapsedNanos;
+
+		/** The time each maze took, from starting its task to the sink accepting it, sorted. */
+		private final long[] sortedLatencies;
+
+		/** Creates a report. latencies is sorted in place. */
+		Report(long elapsedNanos, long[] latencies) {
+			this.count = latencies.length;
+			this.elapsedNanos = elapsedNanos;
+			Arrays.sort(latencies);
+			this.sortedLatencies = latencies;
+		}
+
+		/** Returns the number of mazes produced. */
+		public int getCount() {
+			return count;
+		}
+
+		/** Returns the time from starting the batch to finishing its last maze. */
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		/** Returns the number of mazes produced per second. */
+		public double getMazesPerSecond() {
+			return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+		}
+
+		/**
+		 * Returns the latency that the given fraction of mazes took no longer
+		 * than, such as 0.99 for the 99th percentile, or 0 if there were no mazes.
+		 */
+		public long getLatencyPercentile(double fraction) {
+			if (count == 0) {
+				return 0;
+			}
+			// Nearest rank
+			int rank = (int) Math.ceil(fraction * count);
+			return sortedLatencies[Math.max(0, Math.min(count, rank) - 1)];
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d mazes in %.3f s: %.1f mazes/s, p50 %.3f ms, p99 %.3f ms", count,
+					elapsedNanos / 1e9, getMazesPerSecond(), getLatencyPercentile(0.5) / 1e6,
+					getLatencyPercentile(0.99) / 1e6);
+		}
+	}
+
+	/** The width of each maze. */
+	private final int width;
+
+	/** The height of each maze. */
+	private final int height;
+
+	/** The most tasks that may run at once. */
+	private final int maxConcurrency;
+
+	/**
+	 * Creates a batch that makes width x height mazes, running at most
+	 * maxConcurrency at a time.
+	 */
+	public MazeBatch(int width, int height, int maxConcurrency) {
+		MazeGrid.checkDimensions(width, height);
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("Concurrency must be positive: " + maxConcurrency);
+		}
+		this.width = width;
+		this.height = height;
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * Makes count mazes, maze i being generated from seed baseSeed + i, and
+	 * passes each to sink. If a task or the sink fails, no more tasks are
+	 * started and the first failure is thrown once the running tasks finish.
+	 */
+	public Report run(int count, long baseSeed, Sink sink) throws IOException, InterruptedException {
+		long[] latencies = new long[count];
+		Semaphore permits = new Semaphore(maxConcurrency);
+		ReentrantLock sinkLock = new ReentrantLock();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		long start = System.nanoTime();
+		ExecutorService executor = newExecutor(maxConcurrency);
+		try {
+			for (int i = 0; i < count && failure.get() == null; i++) {
+				permits.acquire();
+				int index = i;
+				executor.execute(() -> {
+					try {
+						long taskStart = System.nanoTime();
+						Result result = make(index, baseSeed + index);
+						// A lock rather than synchronized, which would pin a virtual thread
+						sinkLock.lock();
+						try {
+							if (failure.get() == null) {
+								sink.accept(result);
+							}
+						} finally {
+							sinkLock.unlock();
+						}
+						latencies[index] = System.nanoTime() - taskStart;
+					} catch (Throwable t) {
+						failure.compareAndSet(null, t);
+					} finally {
+						permits.release();
+					}
+				});
+			}
+		} finally {
+			executor.shutdown();
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				// Keep waiting; the tasks always finish
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		Throwable t = failure.get();
+		if (t instanceof IOException) {
+			throw (IOException) t;
+		} else if (t instanceof RuntimeException) {
+			throw (RuntimeException) t;
+		} else if (t instanceof Error) {
+			throw (Error) t;
+		} else if (t != null) {
+			throw new IOException(t);
+		}
+		return new Report(elapsed, latencies);
+	}
+
+	/** Generates, solves, and serializes the maze with the given index and seed. */
+	private Result make(int index, long seed) throws IOException {
+		MazeGrid grid = new MazeGrid(width, height);
+		new MazeGenerator(grid, 0, 0, seed).generate();
+		// Solvers are not thread-safe, so each task has its own
+		MazeSolution solution = new AStarSolver().solve(grid, new int[] { 0, 0 },
+				new int[] { width - 1, height - 1 });
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+				(int) (MazeFile.HEADER_BYTES + grid.getWordCount() * Long.BYTES));
+		MazeFile.write(grid, seed, Channels.newChannel(bytes));
+		return new Result(index, seed, bytes.toByteArray(), solution);
+	}
+
+	/**
+	 * Returns an executor that starts a virtual thread per task if the runtime
+	 * supports them, or a pool of the given number of threads otherwise.
+	 */
+	private static ExecutorService newExecutor(int threads) {
+		try {
+			// Looked up by name, so that this still compiles for and runs on Java 17
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newFixedThreadPool(threads);
+		}
+	}
+
+	/**
+	 * Makes a batch of mazes and prints a report. The arguments are the number
+	 * of mazes, their width, the base seed, and optionally a file to which the
+	 * mazes are written one after another in the MazeFile format. The mazes
+	 * are square unless a height is given with -Dheight, and the number of
+	 * concurrent tasks can be set with -Dconcurrency.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 3) {
+			System.err.println("Usage: java MazeBatch count width seed [output file]");
+			System.exit(2);
+		}
+		int count = Integer.parseInt(args[0]);
+		int width = Integer.parseInt(args[1]);
+		long seed = Long.parseLong(args[2]);
+		int height = Integer.getInteger("height", width);
+		int concurrency = Integer.getInteger("concurrency", Runtime.getRuntime().availableProcessors());
+		MazeBatch batch = new MazeBatch(width, height, concurrency);
+		Report report;
+		if (args.length > 3) {
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(args[3])))) {
+				report = batch.run(count, seed, result -> out.write(result.getBytes()));
+			}
+		} else {
+			report = batch.run(count, seed, result -> {
+			});
+		}
+		System.out.println(report);
+	}
+}
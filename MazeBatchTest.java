@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class MazeBatchTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void runPassesEveryMazeToSink() throws IOException, InterruptedException {
+		List<MazeBatch.Result> results = new ArrayList<>();
+		MazeBatch.Report report = new MazeBatch(12, 8, 3).run(50, 1000L, results::add);
+		assertEquals(50, results.size());
+		assertEquals(50, report.getCount());
+		boolean[] seen = new boolean[50];
+		for (MazeBatch.Result result : results) {
+			assertFalse(seen[result.getIndex()]);
+			seen[result.getIndex()] = true;
+			assertEquals(1000L + result.getIndex(), result.getSeed());
+			assertTrue(result.getSolution().isSolved());
+		}
+	}
+
+	@Test
+	public void resultBytesAreMazeFiles() throws IOException, InterruptedException {
+		List<MazeBatch.Result> results = new ArrayList<>();
+		new MazeBatch(15, 15, 2).run(4, 7L, results::add);
+		for (MazeBatch.Result result : results) {
+			Path path = directory.resolve("maze" + result.getIndex() + ".bin");
+			Files.write(path, result.getBytes());
+			MazeFile file = MazeFile.open(path);
+			MazeGrid expected = new MazeGrid(15);
+			new MazeGenerator(expected, 0, 0, result.getSeed()).generate();
+			assertEquals(result.getSeed(), file.getSeed());
+			assertEquals(expected, file.getGrid());
+		}
+	}
+
+	@Test
+	public void reportOrdersPercentiles() throws IOException, InterruptedException {
+		MazeBatch.Report report = new MazeBatch(20, 20, 4).run(100, 0L, result -> {
+		});
+		assertTrue(report.getMazesPerSecond() > 0);
+		assertTrue(report.getLatencyPercentile(0.5) > 0);
+		assertTrue(report.getLatencyPercentile(0.5) <= report.getLatencyPercentile(0.99));
+		assertTrue(report.getLatencyPercentile(0.99) <= report.getLatencyPercentile(1));
+	}
+
+	@Test
+	public void runThrowsSinkFailure() {
+		MazeBatch batch = new MazeBatch(5, 5, 2);
+		IOException e = assertThrows(IOException.class, () -> batch.run(20, 0L, result -> {
+			throw new IOException("disk full");
+		}));
+		assertEquals("disk full", e.getMessage());
+	}
+
+}
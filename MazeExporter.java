@@ -0,0 +1,188 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+/**
+ * Draws mazes and solutions without a display, either into a BufferedImage
+ * (which can be saved as a PNG) or as SVG. The pictures match Maze.drawMaze
+ * and Maze.drawSolution, but every straight run of passages is drawn as one
+ * line and a solution is drawn as one polyline with a point only where it
+ * turns, so far fewer lines are drawn than there are passages.
+ */
+public class MazeExporter {
+
+	/** The background (wall) color, StdDraw.PINK. */
+	private static final Color WALL = new Color(255, 175, 175);
+
+	/** The passage width, as a fraction of the distance between locations. */
+	private static final double PASSAGE_WIDTH = 0.75;
+
+	/** The solution line width, as a fraction of the distance between locations. */
+	private static final double SOLUTION_WIDTH = 0.2;
+
+	/** Receives the straight lines that make up a picture. */
+	private interface LineSink {
+
+		/** Receives a line from location x0, y0 to location x1, y1. */
+		void line(int x0, int y0, int x1, int y1) throws IOException;
+	}
+
+	/**
+	 * Returns a picture of grid, and of path if it is not null, with cellSize
+	 * pixels between neighboring locations. cellSize should be at least 2 for
+	 * the walls to show.
+	 */
+	public static BufferedImage toImage(MazeGrid grid, int[][] path, int cellSize) {
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		// One extra location's worth of space around the maze fits the entrance
+		// and exit
+		BufferedImage image = new BufferedImage((width + 1) * cellSize, (height + 1) * cellSize,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		try {
+			g.setColor(WALL);
+			g.fillRect(0, 0, image.getWidth(), image.getHeight());
+			g.setColor(Color.WHITE);
+			g.setStroke(new BasicStroke((float) (PASSAGE_WIDTH * cellSize), BasicStroke.CAP_SQUARE,
+					BasicStroke.JOIN_MITER));
+			try {
+				forEachLine(grid, (x0, y0, x1, y1) -> g.drawLine(toPixel(x0, cellSize),
+						toPixel(height - 1 - y0, cellSize), toPixel(x1, cellSize), toPixel(height - 1 - y1, cellSize)));
+			} catch (IOException e) {
+				// Drawing into an image never throws
+				throw new IllegalStateException(e);
+			}
+			if (path != null) {
+				int[][] corners = corners(path);
+				int[] xs = new int[corners.length];
+				int[] ys = new int[corners.length];
+				for (int i = 0; i < corners.length; i++) {
+					xs[i] = toPixel(corners[i][Maze.X], cellSize);
+					ys[i] = toPixel(height - 1 - corners[i][Maze.Y], cellSize);
+				}
+				g.setColor(Color.BLACK);
+				g.setStroke(new BasicStroke((float) Math.max(1, SOLUTION_WIDTH * cellSize), BasicStroke.CAP_ROUND,
+						BasicStroke.JOIN_ROUND));
+				g.drawPolyline(xs, ys, corners.length);
+			}
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Saves a picture of grid, and of path if it is not null, as a PNG file at
+	 * file, with cellSize pixels between neighboring locations.
+	 */
+	public static void writePng(MazeGrid grid, int[][] path, int cellSize, Path file) throws IOException {
+		if (!ImageIO.write(toImage(grid, path, cellSize), "png", file.toFile())) {
+			throw new IOException("No PNG writer is available");
+		}
+	}
+
+	/**
+	 * Writes an SVG picture of grid, and of path if it is not null, to out. One
+	 * unit in the picture is the distance between neighboring locations.
+	 */
+	public static void writeSvg(MazeGrid grid, int[][] path, Appendable out) throws IOException {
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"-1.5 -0.5 ")
+				.append(Integer.toString(width + 2)).append(' ').append(Integer.toString(height + 1))
+				.append("\">\n");
+		out.append("<rect x=\"-1.5\" y=\"-0.5\" width=\"").append(Integer.toString(width + 2))
+				.append("\" height=\"").append(Integer.toString(height + 1)).append("\" fill=\"#ffafaf\"/>\n");
+		out.append("<path fill=\"none\" stroke=\"#ffffff\" stroke-linecap=\"square\" stroke-width=\"")
+				.append(Double.toString(PASSAGE_WIDTH)).append("\" d=\"");
+		forEachLine(grid, (x0, y0, x1, y1) -> out.append('M').append(Integer.toString(x0)).append(' ')
+				.append(Integer.toString(height - 1 - y0)).append('L').append(Integer.toString(x1)).append(' ')
+				.append(Integer.toString(height - 1 - y1)));
+		out.append("\"/>\n");
+		if (path != null) {
+			out.append("<polyline fill=\"none\" stroke=\"#000000\" stroke-linecap=\"round\" stroke-linejoin=\"round\" "
+					+ "stroke-width=\"").append(Double.toString(SOLUTION_WIDTH)).append("\" points=\"");
+			int[][] corners = corners(path);
+			for (int i = 0; i < corners.length; i++) {
+				if (i > 0) {
+					out.append(' ');
+				}
+				out.append(Integer.toString(corners[i][Maze.X])).append(',')
+						.append(Integer.toString(height - 1 - corners[i][Maze.Y]));
+			}
+			out.append("\"/>\n");
+		}
+		out.append("</svg>\n");
+	}
+
+	/**
+	 * Passes sink one line for each maximal straight run of passages in grid,
+	 * plus the entrance and exit.
+	 */
+	private static void forEachLine(MazeGrid grid, LineSink sink) throws IOException {
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		// Vertical runs, one column at a time
+		for (int x = 0; x < width; x++) {
+			int y = 0;
+			while (y < height) {
+				if (grid.hasPassage(x, y, Maze.NORTH)) {
+					int runStart = y;
+					while (grid.hasPassage(x, y, Maze.NORTH)) {
+						y++;
+					}
+					sink.line(x, runStart, x, y);
+				} else {
+					y++;
+				}
+			}
+		}
+		// Horizontal runs, one row at a time
+		for (int y = 0; y < height; y++) {
+			int x = 0;
+			while (x < width) {
+				if (grid.hasPassage(x, y, Maze.EAST)) {
+					int runStart = x;
+					while (grid.hasPassage(x, y, Maze.EAST)) {
+						x++;
+					}
+					sink.line(runStart, y, x, y);
+				} else {
+					x++;
+				}
+			}
+		}
+		// Entrance and exit
+		sink.line(0, 0, -1, 0);
+		sink.line(width - 1, height - 1, width, height - 1);
+	}
+
+	/**
+	 * Returns the locations in path where it starts, turns, or ends, so that
+	 * a polyline through them retraces path.
+	 */
+	static int[][] corners(int[][] path) {
+		int count = 0;
+		int[][] corners = new int[path.length][];
+		for (int i = 0; i < path.length; i++) {
+			if (i == 0 || i == path.length - 1
+					|| path[i + 1][Maze.X] - path[i][Maze.X] != path[i][Maze.X] - path[i - 1][Maze.X]
+					|| path[i + 1][Maze.Y] - path[i][Maze.Y] != path[i][Maze.Y] - path[i - 1][Maze.Y]) {
+				corners[count] = path[i];
+				count++;
+			}
+		}
+		return Arrays.copyOf(corners, count);
+	}
+
+	/** Returns the pixel coordinate of location coordinate v. */
+	private static int toPixel(int v, int cellSize) {
+		return (v + 1) * cellSize;
+	}
+}
@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+
+public class MazeExporterTest {
+
+	@TempDir
+	Path directory;
+
+	/** Returns a 2 x 3 maze whose only path is up column 0, across, and down column 1. */
+	private static MazeGrid hairpin() {
+		MazeGrid grid = new MazeGrid(2, 3);
+		grid.addPassage(0, 0, Maze.NORTH);
+		grid.addPassage(0, 1, Maze.NORTH);
+		grid.addPassage(0, 2, Maze.EAST);
+		grid.addPassage(1, 2, Maze.SOUTH);
+		grid.addPassage(1, 1, Maze.SOUTH);
+		return grid;
+	}
+
+	/** Returns the number of times part appears in text. */
+	private static int count(String text, String part) {
+		int count = 0;
+		for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+
+	@Test
+	public void svgMergesStraightRunsOfPassages() throws IOException {
+		StringBuilder svg = new StringBuilder();
+		MazeExporter.writeSvg(hairpin(), null, svg);
+		// Two vertical runs, one horizontal run, the entrance and the exit
+		assertEquals(5, count(svg.toString(), "M"));
+		assertTrue(svg.toString().contains("M0 2L0 0"));
+		assertFalse(svg.toString().contains("polyline"));
+	}
+
+	@Test
+	public void svgDrawsSolutionThroughCornersOnly() throws IOException {
+		MazeGrid grid = hairpin();
+		int[][] path = Maze.solve(grid, new int[] { 0, 0 }, new int[] { 1, 0 });
+		StringBuilder svg = new StringBuilder();
+		MazeExporter.writeSvg(grid, path, svg);
+		assertTrue(svg.toString().contains("points=\"0,2 0,0 1,0 1,2\""));
+	}
+
+	@Test
+	public void cornersKeepsOnlyTurns() {
+		int[][] path = { { 0, 0 }, { 0, 1 }, { 0, 2 }, { 1, 2 }, { 2, 2 }, { 2, 1 } };
+		assertEquals("[[0, 0], [0, 2], [2, 2], [2, 1]]", Arrays.deepToString(MazeExporter.corners(path)));
+		assertEquals("[[3, 3]]", Arrays.deepToString(MazeExporter.corners(new int[][] { { 3, 3 } })));
+	}
+
+	@Test
+	public void imageShowsPassagesAndWalls() {
+		BufferedImage image = MazeExporter.toImage(hairpin(), null, 10);
+		assertEquals(30, image.getWidth());
+		assertEquals(40, image.getHeight());
+		// Location 0, 1 is on a passage; halfway between 0, 0 and 1, 0 is a wall
+		assertEquals(0xffffff, image.getRGB(10, 20) & 0xffffff);
+		assertEquals(0xffafaf, image.getRGB(15, 30) & 0xffffff);
+	}
+
+	@Test
+	public void pngCanBeReadBack() throws IOException {
+		MazeGrid grid = new MazeGrid(50);
+		new MazeGenerator(grid, 0, 0, 1L).generate();
+		Path file = directory.resolve("maze.png");
+		MazeExporter.writePng(grid, Maze.solve(grid, new int[] { 0, 0 }, new int[] { 49, 49 }), 4, file);
+		assertTrue(Files.size(file) > 0);
+		assertEquals(204, ImageIO.read(file.toFile()).getWidth());
+	}
+
+}
@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes mazes in a compact binary format. A file starts with a
+ * HEADER_BYTES header, in little-endian order:
+ *
+ * <pre>
+ * int  MAGIC
+ * int  VERSION
+ * int  width
+ * int  height
+ * long seed
+ * long number of words that follow
+ * </pre>
+ *
+ * followed by the passage bits of a MazeGrid as little-endian longs. Files
+ * are opened by memory-mapping them, so even a maze of many gigabytes opens
+ * at once, is read straight from the page cache without being copied onto
+ * the heap, and can be shared by several processes.
+ */
+public class MazeFile {
+
+	/** The first four bytes of every maze file: "MAZE" in ASCII. */
+	public static final int MAGIC = 0x455A414D;
+
+	/** The version of the format written by this class. */
+	public static final int VERSION = 1;
+
+	/** The number of bytes before the passage bits. */
+	public static final int HEADER_BYTES = 32;
+
+	/** The version of the format the file was written in. */
+	private final int version;
+
+	/** The seed the maze was generated from. */
+	private final long seed;
+
+	/** The maze, backed by the mapped file. */
+	private final BufferMazeGrid grid;
+
+	/** Creates a MazeFile with the given header values and mapped maze. */
+	private MazeFile(int version, long seed, BufferMazeGrid grid) {
+		this.version = version;
+		this.seed = seed;
+		this.grid = grid;
+	}
+
+	/** Returns the version of the format the file was written in. */
+	public int getVersion() {
+		return version;
+	}
+
+	/** Returns the seed the maze was generated from. */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the maze, backed by the mapped file. Changes to the maze are
+	 * written to the file if it was opened for writing.
+	 */
+	public BufferMazeGrid getGrid() {
+		return grid;
+	}
+
+	/** Writes grid, generated from seed, to the file at path. */
+	public static void write(MazeGrid grid, long seed, Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(grid, seed, channel);
+		}
+	}
+
+	/**
+	 * Writes grid, generated from seed, to channel in the same format as a
+	 * maze file, leaving channel open.
+	 */
+	public static void write(MazeGrid grid, long seed, WritableByteChannel channel) throws IOException {
+		long words = grid.getWordCount();
+		// Small mazes need only a small buffer
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(1 << 16, HEADER_BYTES + words * Long.BYTES))
+				.order(ByteOrder.LITTLE_ENDIAN);
+		putHeader(buffer, grid.getWidth(), grid.getHeight(), seed);
+		for (long i = 0; i < words; i++) {
+			if (!buffer.hasRemaining()) {
+				writeFully(channel, buffer);
+			}
+			buffer.putLong(grid.getWord(i));
+		}
+		writeFully(channel, buffer);
+	}
+
+	/** Opens the maze file at path for reading only. */
+	public static MazeFile open(Path path) throws IOException {
+		return open(path, FileChannel.MapMode.READ_ONLY);
+	}
+
+	/**
+	 * Opens the maze file at path with mode, which is READ_ONLY or READ_WRITE.
+	 * Throws an IOException if the file is not a maze file in a known version.
+	 */
+	public static MazeFile open(Path path, FileChannel.MapMode mode) throws IOException {
+		StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+				? new StandardOpenOption[] { StandardOpenOption.READ }
+				: new StandardOpenOption[] { StandardOpenOption.READ, StandardOpenOption.WRITE };
+		try (FileChannel channel = FileChannel.open(path, options)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException(path + " is too short to be a maze file");
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException(path + " is not a maze file");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException(path + " has unsupported version " + version);
+			}
+			int width = header.getInt();
+			int height = header.getInt();
+			long seed = header.getLong();
+			long words = header.getLong();
+			if (width <= 0 || height <= 0 || words != MazeGrid.getWordCount(width, height)
+					|| channel.size() < HEADER_BYTES + words * Long.BYTES) {
+				throw new IOException(path + " has a corrupt header");
+			}
+			return new MazeFile(version, seed, new BufferMazeGrid(width, height, map(channel, mode, words)));
+		}
+	}
+
+	/**
+	 * Creates a file at path for a width by height maze with no passages and
+	 * opens it for writing, so that a maze can be generated straight into the
+	 * file without ever being on the heap.
+	 */
+	public static MazeFile create(Path path, int width, int height, long seed) throws IOException {
+		MazeGrid.checkDimensions(width, height);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			putHeader(header, width, height, seed);
+			writeFully(channel, header);
+			// Extend the file with zeros (no passages), sparsely where supported
+			long size = HEADER_BYTES + MazeGrid.getWordCount(width, height) * Long.BYTES;
+			channel.write(ByteBuffer.allocate(1), size - 1);
+		}
+		return open(path, FileChannel.MapMode.READ_WRITE);
+	}
+
+	/** Puts a header for a width by height maze generated from seed into buffer. */
+	private static void putHeader(ByteBuffer buffer, int width, int height, long seed) {
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(width);
+		buffer.putInt(height);
+		buffer.putLong(seed);
+		buffer.putLong(MazeGrid.getWordCount(width, height));
+	}
+
+	/** Maps the given number of words following the header of channel's file. */
+	private static ByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long words) throws IOException {
+		long bytes = words * Long.BYTES;
+		ByteBuffer[] chunks = new ByteBuffer[BufferMazeGrid.getChunkCount(bytes)];
+		for (int i = 0; i < chunks.length; i++) {
+			long offset = (long) i << BufferMazeGrid.CHUNK_SHIFT;
+			chunks[i] = channel.map(mode, HEADER_BYTES + offset, Math.min(BufferMazeGrid.CHUNK_BYTES, bytes - offset));
+		}
+		return chunks;
+	}
+
+	/** Writes everything in buffer to channel, then clears buffer. */
+	static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+
+public class MazeFileTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void openReadsWhatWriteWrote() throws IOException {
+		MazeGrid grid = new MazeGrid(37, 21);
+		new MazeGenerator(grid, 0, 0, 5L).generate();
+		Path path = directory.resolve("maze.bin");
+		MazeFile.write(grid, 5L, path);
+		MazeFile file = MazeFile.open(path);
+		assertEquals(MazeFile.VERSION, file.getVersion());
+		assertEquals(5L, file.getSeed());
+		assertEquals(37, file.getGrid().getWidth());
+		assertEquals(21, file.getGrid().getHeight());
+		assertEquals(grid, file.getGrid());
+		assertEquals(MazeFile.HEADER_BYTES + grid.getWordCount() * Long.BYTES, Files.size(path));
+	}
+
+	@Test
+	public void mappedMazeCanBeSolved() throws IOException {
+		MazeGrid grid = new MazeGrid(40);
+		new MazeGenerator(grid, 0, 0, 11L).generate();
+		Path path = directory.resolve("maze.bin");
+		MazeFile.write(grid, 11L, path);
+		MazeGrid mapped = MazeFile.open(path).getGrid();
+		int[] start = { 0, 0 };
+		int[] goal = { 39, 39 };
+		assertEquals(Arrays.deepToString(Maze.solve(grid, start, goal)),
+				Arrays.deepToString(Maze.solve(mapped, start, goal)));
+	}
+
+	@Test
+	public void mazeCanBeGeneratedStraightIntoFile() throws IOException {
+		Path path = directory.resolve("maze.bin");
+		MazeFile created = MazeFile.create(path, 30, 30, 3L);
+		new MazeGenerator(created.getGrid(), 0, 0, 3L).generate();
+		created.getGrid().addPassageConcurrently(0, 0, Maze.NORTH);
+		MazeGrid expected = new MazeGrid(30, 30);
+		new MazeGenerator(expected, 0, 0, 3L).generate();
+		expected.addPassage(0, 0, Maze.NORTH);
+		assertEquals(expected, MazeFile.open(path).getGrid());
+	}
+
+	@Test
+	public void readOnlyMazeCannotBeChanged() throws IOException {
+		Path path = directory.resolve("maze.bin");
+		MazeFile.write(new MazeGrid(4), 0L, path);
+		MazeGrid mapped = MazeFile.open(path).getGrid();
+		assertThrows(ReadOnlyBufferException.class, () -> mapped.addPassage(0, 0, Maze.EAST));
+	}
+
+	@Test
+	public void openRejectsOtherFiles() throws IOException {
+		Path path = directory.resolve("other.bin");
+		Files.write(path, new byte[64]);
+		assertThrows(IOException.class, () -> MazeFile.open(path));
+		Files.write(path, new byte[3]);
+		assertThrows(IOException.class, () -> MazeFile.open(path));
+	}
+
+}
@@ -0,0 +1,232 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates a maze the same way as Maze.expandMaze, but in time linear in the
+ * number of locations. Instead of searching the unexplored list, a bitmap
+ * records which locations have been visited, and the frontier is an array of
+ * cell numbers from which locations are removed by swapping in the last
+ * element.
+ */
+public class MazeGenerator {
+
+	/** The maze to which passages are added. */
+	private final MazeGrid grid;
+
+	/** The source of random choices. */
+	private final RandomGenerator random;
+
+	/** visited bit c is set once the location with cell number c is reached. */
+	private final long[] visited;
+
+	/**
+	 * Cell numbers of locations that have been reached but are not yet done.
+	 * The first frontierSize elements are valid.
+	 */
+	private final int[] frontier;
+
+	/** The number of valid elements in frontier. */
+	private int frontierSize;
+
+	/** The number of locations from which no new passages can be drawn. */
+	private int doneCount;
+
+	/** The number of locations that have not yet been reached. */
+	private int unexploredCount;
+
+	/**
+	 * The cell number of the last location that was explored, or -1. When
+	 * this is not -1, it is always the last element of frontier.
+	 */
+	private int lastExplored;
+
+	/**
+	 * Creates a generator that grows a maze in grid, starting from location
+	 * startX, startY. Assumes grid has no passages yet.
+	 */
+	public MazeGenerator(MazeGrid grid, int startX, int startY) {
+		this(grid, startX, startY, new SplittableRandom());
+	}
+
+	/**
+	 * Like the constructor above, but makes its random choices with a
+	 * generator seeded with seed. The same seed always produces the same maze,
+	 * and only a generator made this way can be checkpointed.
+	 */
+	public MazeGenerator(MazeGrid grid, int startX, int startY, long seed) {
+		this(grid, startX, startY, new SeededRandom(seed));
+	}
+
+	/**
+	 * Like the constructor above, but makes its random choices with random.
+	 * Generators with separate sources of randomness can run in parallel
+	 * without contending for shared state.
+	 */
+	public MazeGenerator(MazeGrid grid, int startX, int startY, RandomGenerator random) {
+		this.grid = grid;
+		this.random = random;
+		int cells = grid.getCellCount();
+		visited = new long[(cells + 63) >>> 6];
+		frontier = new int[cells];
+		int start = grid.cell(startX, startY);
+		visit(start);
+		frontier[0] = start;
+		frontierSize = 1;
+		unexploredCount = cells - 1;
+		lastExplored = -1;
+	}
+
+	/** Creates a generator with the given state, as restored from a GenerationCheckpoint. */
+	MazeGenerator(MazeGrid grid, RandomGenerator random, long[] visited, int[] frontier, int frontierSize,
+			int doneCount, int unexploredCount, int lastExplored) {
+		this.grid = grid;
+		this.random = random;
+		this.visited = visited;
+		this.frontier = frontier;
+		this.frontierSize = frontierSize;
+		this.doneCount = doneCount;
+		this.unexploredCount = unexploredCount;
+		this.lastExplored = lastExplored;
+	}
+
+	/** Returns the maze to which passages are added. */
+	public MazeGrid getGrid() {
+		return grid;
+	}
+
+	/** Returns the number of locations from which no new passages can be drawn. */
+	public int getDoneCount() {
+		return doneCount;
+	}
+
+	/** Returns the number of locations that have been reached but are not done. */
+	public int getFrontierSize() {
+		return frontierSize;
+	}
+
+	/** Returns the number of locations that have not yet been reached. */
+	public int getUnexploredCount() {
+		return unexploredCount;
+	}
+
+	/** Returns true when every location has been reached. */
+	public boolean isFinished() {
+		return unexploredCount == 0;
+	}
+
+	/**
+	 * Expands the maze by one step, exactly as Maze.expandMaze does: chooses
+	 * "here" to be the last explored location (if any) or a random frontier
+	 * location, then tries to add a passage from "here" to an unexplored
+	 * neighbor "there", starting in a random direction. Returns the cell number
+	 * of "there", or -1 if "here" had no unexplored neighbor and was moved to
+	 * done.
+	 */
+	public int step() {
+		if (frontierSize == 0) {
+			return -1;
+		}
+		int herePosition;
+		if (lastExplored < 0) {
+			herePosition = random.nextInt(frontierSize);
+		} else {
+			herePosition = frontierSize - 1;
+		}
+		int here = frontier[herePosition];
+		int x = grid.cellX(here);
+		int y = grid.cellY(here);
+		// Choose a random direction
+		int direction = random.nextInt(4);
+		for (int i = 0; i < 4; i++) {
+			int thereX = x + Maze.OFFSETS[direction][Maze.X];
+			int thereY = y + Maze.OFFSETS[direction][Maze.Y];
+			if (grid.isInside(thereX, thereY)) {
+				int there = grid.cell(thereX, thereY);
+				if (!isVisited(there)) {
+					// Move there from unexplored to frontier
+					grid.addPassage(x, y, direction);
+					visit(there);
+					frontier[frontierSize] = there;
+					frontierSize++;
+					unexploredCount--;
+					lastExplored = there;
+					MazeMetrics.generationStep(i, doneCount, frontierSize, unexploredCount);
+					return there;
+				}
+			}
+			direction = (direction + 1) % 4;
+		}
+		// No valid neighbor was found. Move here from frontier to done.
+		frontierSize--;
+		frontier[herePosition] = frontier[frontierSize];
+		doneCount++;
+		lastExplored = -1;
+		MazeMetrics.generationStep(4, doneCount, frontierSize, unexploredCount);
+		return -1;
+	}
+
+	/** Expands the maze until every location has been reached. */
+	public void generate() {
+		generate((steps, there) -> {
+		});
+	}
+
+	/**
+	 * Like generate above, but tells listener about each step as soon as it
+	 * has been taken. If listener throws an exception, generation stops there
+	 * and the exception is passed on.
+	 */
+	public void generate(StepListener listener) {
+		MazeMetrics.GenerationEvent event = MazeMetrics.generationStarted(grid);
+		long steps = 0;
+		while (!isFinished()) {
+			int there = step();
+			steps++;
+			listener.stepTaken(steps, there);
+		}
+		MazeMetrics.generationFinished(event, steps);
+	}
+
+	/**
+	 * Returns a copy of this generator's state from which GenerationCheckpoint.resume
+	 * carries on exactly where this generator is now. Takes time proportional to
+	 * the size of the maze, but only copies arrays. Throws an exception unless
+	 * this generator was created with a seed.
+	 */
+	public GenerationCheckpoint checkpoint() {
+		if (!(random instanceof SeededRandom)) {
+			throw new IllegalStateException("Only a generator created with a seed can be checkpointed");
+		}
+		SeededRandom seeded = (SeededRandom) random;
+		long[] words = new long[(int) grid.getWordCount()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = grid.getWord(i);
+		}
+		return new GenerationCheckpoint(grid.getWidth(), grid.getHeight(), seeded.getSeed(), seeded.getState(), words,
+				visited.clone(), Arrays.copyOf(frontier, frontierSize), doneCount, unexploredCount, lastExplored);
+	}
+
+	/** Something told about each step generate takes. */
+	@FunctionalInterface
+	public interface StepListener {
+
+		/**
+		 * Called after each step, where steps is the number of steps taken
+		 * so far by this call to generate and there is what step returned: the
+		 * cell number of the location just reached, whose only passage is the
+		 * one it was reached by, or -1.
+		 */
+		void stepTaken(long steps, int there);
+	}
+
+	/** Returns true if the location with cell number cell has been reached. */
+	private boolean isVisited(int cell) {
+		return (visited[cell >>> 6] & (1L << cell)) != 0;
+	}
+
+	/** Records that the location with cell number cell has been reached. */
+	private void visit(int cell) {
+		visited[cell >>> 6] |= 1L << cell;
+	}
+}
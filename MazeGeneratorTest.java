@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+import java.lang.management.ManagementFactory;
+import java.util.stream.IntStream;
+
+
+public class MazeGeneratorTest {
+
+	@Test
+	public void stepUpdatesCountsProperly() {
+		MazeGrid grid = new MazeGrid(2);
+		MazeGenerator generator = new MazeGenerator(grid, 0, 0);
+		assertEquals(3, generator.getUnexploredCount());
+		int there = generator.step();
+		// From a corner of a 2x2 maze there is always an unexplored neighbor
+		assertTrue(there >= 0);
+		assertEquals(2, generator.getFrontierSize());
+		assertEquals(2, generator.getUnexploredCount());
+		assertEquals(0, generator.getDoneCount());
+		assertEquals(1, MazeTestSupport.countPassages(grid));
+	}
+
+	@Test
+	public void stepMovesDeadEndToDone() {
+		MazeGrid grid = new MazeGrid(1, 2);
+		MazeGenerator generator = new MazeGenerator(grid, 0, 0);
+		assertEquals(1, generator.step());
+		assertTrue(generator.isFinished());
+		// 0, 1 has no unexplored neighbors
+		assertEquals(-1, generator.step());
+		assertEquals(1, generator.getDoneCount());
+		assertEquals(1, generator.getFrontierSize());
+	}
+
+	@Test
+	public void generateBuildsSpanningTree() {
+		MazeGrid grid = new MazeGrid(30, 17);
+		new MazeGenerator(grid, 5, 5).generate();
+		// A connected maze with one fewer passage than locations has no cycles
+		assertEquals(30 * 17 - 1, MazeTestSupport.countPassages(grid));
+		assertNotNull(Maze.solve(grid, new int[] { 0, 0 }, new int[] { 29, 16 }));
+		assertNotNull(Maze.solve(grid, new int[] { 29, 0 }, new int[] { 0, 16 }));
+	}
+
+	@Test
+	public void generateFinishesLargeMaze() {
+		MazeGrid grid = new MazeGrid(1000);
+		MazeGenerator generator = new MazeGenerator(grid, 0, 0);
+		generator.generate();
+		assertEquals(0, generator.getUnexploredCount());
+		assertEquals(1000 * 1000 - 1, MazeTestSupport.countPassages(grid));
+	}
+
+	@Test
+	public void sameSeedGeneratesSameMaze() {
+		MazeGrid first = new MazeGrid(50);
+		new MazeGenerator(first, 0, 0, 123L).generate();
+		MazeGrid second = new MazeGrid(50);
+		new MazeGenerator(second, 0, 0, 123L).generate();
+		MazeGrid other = new MazeGrid(50);
+		new MazeGenerator(other, 0, 0, 124L).generate();
+		assertEquals(first, second);
+		assertNotEquals(first, other);
+	}
+
+	@Test
+	public void seededGeneratorsRunInParallel() {
+		// Each maze depends only on its seed, not on what other threads are doing
+		MazeGrid[] parallel = new MazeGrid[16];
+		IntStream.range(0, parallel.length).parallel().forEach(seed -> {
+			parallel[seed] = new MazeGrid(60);
+			new MazeGenerator(parallel[seed], 0, 0, seed).generate();
+		});
+		for (int seed = 0; seed < parallel.length; seed++) {
+			MazeGrid sequential = new MazeGrid(60);
+			new MazeGenerator(sequential, 0, 0, seed).generate();
+			assertEquals(sequential, parallel[seed]);
+		}
+	}
+
+	@Test
+	public void stepDoesNotAllocate() {
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		// Generate one maze to warm up, then measure a second one
+		for (int m = 0; m < 2; m++) {
+			MazeGenerator generator = new MazeGenerator(new MazeGrid(300), 0, 0, 5L);
+			long before = threads.getCurrentThreadAllocatedBytes();
+			generator.generate();
+			long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+			if (m == 1) {
+				assertEquals(0, allocated);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,336 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A maze stored as two bits per location in one flat array of longs. Each
+ * location owns the wall to its north and the wall to its east; the walls to
+ * the south and west belong to the neighbors in those directions. Every
+ * passage is therefore stored exactly once and is always two-way. Subclasses
+ * may keep the words of bits somewhere other than the heap by overriding
+ * getWord, setWord and orWordConcurrently.
+ */
+public class MazeGrid implements RowSink, PassageLookup {
+
+	/** Offset of the bit for the passage to the north of a location. */
+	private static final int NORTH_BIT = 0;
+
+	/** Offset of the bit for the passage to the east of a location. */
+	private static final int EAST_BIT = 1;
+
+	/** Number of bits stored per location. */
+	private static final int BITS_PER_LOCATION = 2;
+
+	/** Atomic access to the elements of bits. */
+	private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	/** Number of locations in the x direction. */
+	private final int width;
+
+	/** Number of locations in the y direction. */
+	private final int height;
+
+	/**
+	 * Passage bits, or null if a subclass stores them. Location x, y uses bits
+	 * 2 * (x * height + y) (north) and 2 * (x * height + y) + 1 (east).
+	 */
+	private final long[] bits;
+
+	/** Creates a square maze with no passages. */
+	public MazeGrid(int width) {
+		this(width, width);
+	}
+
+	/** Creates a width by height maze with no passages. */
+	public MazeGrid(int width, int height) {
+		this(width, height, newWords(width, height));
+	}
+
+	/**
+	 * Creates a width by height maze whose bits are stored in bits, or by the
+	 * subclass (which must then override the word methods) if bits is null.
+	 */
+	protected MazeGrid(int width, int height, long[] bits) {
+		checkDimensions(width, height);
+		this.width = width;
+		this.height = height;
+		this.bits = bits;
+	}
+
+	/**
+	 * Returns a new MazeGrid containing every passage in passages. A passage
+	 * is included if it is recorded in either direction, the same way
+	 * Maze.drawMaze treats it.
+	 *
+	 * @param passages
+	 *            passages[x][y][direction] is true if there is a passage from
+	 *            location x, y to its neighbor in direction. Directions are
+	 *            specified by the constants NORTH, EAST, SOUTH, and WEST.
+	 */
+	public static MazeGrid fromPassages(boolean[][][] passages) {
+		int width = passages.length;
+		int height = passages[0].length;
+		MazeGrid grid = new MazeGrid(width, height);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				for (int d = 0; d < 4; d++) {
+					if (passages[x][y][d] && grid.isInside(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y])) {
+						grid.addPassage(x, y, d);
+					}
+				}
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * Returns this maze as a passages array. Every passage is recorded in both
+	 * directions.
+	 */
+	public boolean[][][] toPassages() {
+		boolean[][][] passages = new boolean[width][height][4];
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				for (int d = 0; d < 4; d++) {
+					passages[x][y][d] = hasPassage(x, y, d);
+				}
+			}
+		}
+		return passages;
+	}
+
+	/** Throws an exception unless width and height are both positive. */
+	static void checkDimensions(int width, int height) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException("Maze dimensions must be positive: " + width + " x " + height);
+		}
+	}
+
+	/** Returns a new array big enough to hold the bits of a width by height maze. */
+	private static long[] newWords(int width, int height) {
+		checkDimensions(width, height);
+		long words = getWordCount(width, height);
+		if (words > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Maze is too large: " + width + " x " + height);
+		}
+		return new long[(int) words];
+	}
+
+	/** Returns the number of 64-bit words needed to store a width by height maze. */
+	public static long getWordCount(int width, int height) {
+		return ((long) width * height * BITS_PER_LOCATION + 63) >>> 6;
+	}
+
+	/** Returns the number of 64-bit words of passage bits in this maze. */
+	public long getWordCount() {
+		return getWordCount(width, height);
+	}
+
+	/** Returns the number of locations in the x direction. */
+	public int getWidth() {
+		return width;
+	}
+
+	/** Returns the number of locations in the y direction. */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the number of locations in this maze, each of which has a cell
+	 * number from 0 to getCellCount() - 1. Throws an exception if the maze has
+	 * too many locations to number with an int.
+	 */
+	public int getCellCount() {
+		long cells = (long) width * height;
+		if (cells > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Maze has too many locations to number: " + cells);
+		}
+		return (int) cells;
+	}
+
+	/** Returns the cell number of location x, y. */
+	public int cell(int x, int y) {
+		return x * height + y;
+	}
+
+	/** Returns the x coordinate of the location with cell number cell. */
+	public int cellX(int cell) {
+		return cell / height;
+	}
+
+	/** Returns the y coordinate of the location with cell number cell. */
+	public int cellY(int cell) {
+		return cell % height;
+	}
+
+	/**
+	 * Returns the direction (NORTH, EAST, SOUTH, or WEST) in which the location
+	 * with cell number to lies from the one with cell number from. Assumes
+	 * these two locations are adjacent.
+	 */
+	public int direction(int from, int to) {
+		int difference = to - from;
+		// Check east and west first, since in a maze of height 1 they are also
+		// 1 apart
+		if (difference == height) {
+			return Maze.EAST;
+		} else if (difference == -height) {
+			return Maze.WEST;
+		} else if (difference == 1) {
+			return Maze.NORTH;
+		} else {
+			return Maze.SOUTH;
+		}
+	}
+
+	/** Returns true if x, y is a location in this maze. */
+	public boolean isInside(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	/**
+	 * Returns true if there is a passage from location x, y to its neighbor in
+	 * direction. Returns false if that neighbor is outside the maze.
+	 */
+	public boolean hasPassage(int x, int y, int direction) {
+		long bit = bitIndex(x, y, direction);
+		return bit >= 0 && (getWord(bit >>> 6) & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Adds a passage between location x, y and its neighbor in direction.
+	 * Assumes that neighbor is inside the maze.
+	 */
+	public void addPassage(int x, int y, int direction) {
+		long bit = checkedBitIndex(x, y, direction);
+		setWord(bit >>> 6, getWord(bit >>> 6) | (1L << bit));
+	}
+
+	/**
+	 * Like addPassage, but safe to call from several threads at once, even when
+	 * they add passages at neighboring locations that share a word of bits.
+	 */
+	public void addPassageConcurrently(int x, int y, int direction) {
+		long bit = checkedBitIndex(x, y, direction);
+		orWordConcurrently(bit >>> 6, 1L << bit);
+	}
+
+	/**
+	 * Removes the passage (if any) between location x, y and its neighbor in
+	 * direction. Assumes that neighbor is inside the maze.
+	 */
+	public void removePassage(int x, int y, int direction) {
+		long bit = checkedBitIndex(x, y, direction);
+		setWord(bit >>> 6, getWord(bit >>> 6) & ~(1L << bit));
+	}
+
+	/**
+	 * Adds the passages in row y, so that a streaming generator such as
+	 * EllerGenerator can fill in this maze.
+	 */
+	@Override
+	public void acceptRow(int y, boolean[] east, boolean[] north) {
+		for (int x = 0; x < width; x++) {
+			if (east[x]) {
+				addPassage(x, y, Maze.EAST);
+			}
+			if (north[x]) {
+				addPassage(x, y, Maze.NORTH);
+			}
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof MazeGrid)) {
+			return false;
+		}
+		MazeGrid that = (MazeGrid) o;
+		if (width != that.width || height != that.height) {
+			return false;
+		}
+		long words = getWordCount();
+		for (long i = 0; i < words; i++) {
+			if (getWord(i) != that.getWord(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 31 * width + height;
+		long words = getWordCount();
+		for (long i = 0; i < words; i++) {
+			hash = 31 * hash + Long.hashCode(getWord(i));
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns a 64-bit hash of the size and passages of this maze. Unlike
+	 * hashCode, it is long enough that two different mazes are very unlikely
+	 * ever to share one, so it can stand in for the maze in a cache key. It
+	 * takes time proportional to the size of the maze.
+	 */
+	public long fingerprint() {
+		long hash = mix(((long) width << 32) | height);
+		long words = getWordCount();
+		for (long i = 0; i < words; i++) {
+			hash = mix(hash ^ getWord(i)) + i;
+		}
+		return mix(hash);
+	}
+
+	/** Scrambles the bits of z (the finalizer of SplitMix64). */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/** Returns word index of the passage bits. */
+	protected long getWord(long index) {
+		return bits[(int) index];
+	}
+
+	/** Replaces word index of the passage bits with word. */
+	protected void setWord(long index, long word) {
+		bits[(int) index] = word;
+	}
+
+	/** Atomically ORs mask into word index of the passage bits. */
+	protected void orWordConcurrently(long index, long mask) {
+		WORDS.getAndBitwiseOr(bits, (int) index, mask);
+	}
+
+	/**
+	 * Returns the index of the bit recording the passage from x, y in
+	 * direction, or -1 if either end of that passage is outside the maze.
+	 */
+	private long bitIndex(int x, int y, int direction) {
+		// South and west passages are stored by the neighbor as north and east
+		if (direction == Maze.SOUTH) {
+			y--;
+			direction = Maze.NORTH;
+		} else if (direction == Maze.WEST) {
+			x--;
+			direction = Maze.EAST;
+		}
+		if (x < 0 || y < 0 || x >= width || y >= height
+				|| (direction == Maze.NORTH && y + 1 >= height) || (direction == Maze.EAST && x + 1 >= width)) {
+			return -1;
+		}
+		return ((long) x * height + y) * BITS_PER_LOCATION + (direction == Maze.NORTH ? NORTH_BIT : EAST_BIT);
+	}
+
+	/** Like bitIndex, but throws an exception instead of returning -1. */
+	private long checkedBitIndex(int x, int y, int direction) {
+		long bit = bitIndex(x, y, direction);
+		if (bit < 0) {
+			throw new IndexOutOfBoundsException("No passage from " + x + ", " + y + " in direction " + direction);
+		}
+		return bit;
+	}
+}
@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+
+
+public class MazeGridTest {
+
+	@Test
+	public void addPassageIsVisibleFromBothEnds() {
+		MazeGrid grid = new MazeGrid(3);
+		grid.addPassage(1, 1, Maze.EAST);
+		assertTrue(grid.hasPassage(1, 1, Maze.EAST));
+		assertTrue(grid.hasPassage(2, 1, Maze.WEST));
+		grid.addPassage(1, 1, Maze.SOUTH);
+		assertTrue(grid.hasPassage(1, 1, Maze.SOUTH));
+		assertTrue(grid.hasPassage(1, 0, Maze.NORTH));
+	}
+
+	@Test
+	public void addPassageDoesNotAddOtherPassages() {
+		MazeGrid grid = new MazeGrid(3);
+		grid.addPassage(1, 1, Maze.NORTH);
+		assertFalse(grid.hasPassage(1, 1, Maze.EAST));
+		assertFalse(grid.hasPassage(1, 1, Maze.SOUTH));
+		assertFalse(grid.hasPassage(1, 1, Maze.WEST));
+		assertFalse(grid.hasPassage(0, 2, Maze.EAST));
+	}
+
+	@Test
+	public void removePassageRemovesPassage() {
+		MazeGrid grid = new MazeGrid(3);
+		grid.addPassage(1, 1, Maze.WEST);
+		grid.removePassage(0, 1, Maze.EAST);
+		assertFalse(grid.hasPassage(1, 1, Maze.WEST));
+	}
+
+	@Test
+	public void hasPassageIsFalseAtEdges() {
+		MazeGrid grid = new MazeGrid(2);
+		assertFalse(grid.hasPassage(1, 1, Maze.NORTH));
+		assertFalse(grid.hasPassage(1, 1, Maze.EAST));
+		assertFalse(grid.hasPassage(0, 0, Maze.SOUTH));
+		assertFalse(grid.hasPassage(0, 0, Maze.WEST));
+	}
+
+	@Test
+	public void addPassageRejectsPassageOutOfGrid() {
+		MazeGrid grid = new MazeGrid(2);
+		assertThrows(IndexOutOfBoundsException.class, () -> grid.addPassage(1, 0, Maze.EAST));
+	}
+
+	@Test
+	public void fromPassagesAndToPassagesAgree() {
+		boolean[][][] passages = new boolean[2][2][4];
+		passages[0][0][Maze.NORTH] = true;
+		passages[0][1][Maze.EAST] = true;
+		MazeGrid grid = MazeGrid.fromPassages(passages);
+		assertTrue(grid.hasPassage(0, 1, Maze.SOUTH));
+		assertTrue(grid.hasPassage(1, 1, Maze.WEST));
+		assertFalse(grid.hasPassage(0, 0, Maze.EAST));
+		assertEquals(grid, MazeGrid.fromPassages(grid.toPassages()));
+	}
+
+	@Test
+	public void solveSolvesGrid() {
+		MazeGrid grid = new MazeGrid(2);
+		grid.addPassage(0, 0, Maze.NORTH);
+		grid.addPassage(1, 1, Maze.WEST);
+		grid.addPassage(1, 1, Maze.SOUTH);
+		int[][] solution = Maze.solve(grid, new int[] { 1, 0 }, new int[] { 0, 0 });
+		assertEquals("[[1, 0], [1, 1], [0, 1], [0, 0]]", Arrays.deepToString(solution));
+	}
+
+	@Test
+	public void expandMazeBuildsSpanningTree() {
+		int width = 5;
+		MazeGrid grid = new MazeGrid(width);
+		int[][] done = new int[width * width][];
+		int[][] frontier = new int[width * width][];
+		frontier[0] = new int[] { 0, 0 };
+		int[][] unexplored = new int[width * width][];
+		int[] counts = { 0, 1, width * width - 1 };
+		int i = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < width; y++) {
+				if (x != 0 || y != 0) {
+					unexplored[i] = new int[] { x, y };
+					i++;
+				}
+			}
+		}
+		int[] lastExploredLocation = null;
+		while (counts[2] > 0) {
+			lastExploredLocation = Maze.expandMaze(grid, done, frontier, unexplored, counts, lastExploredLocation);
+		}
+		// A spanning tree has exactly one fewer passage than locations
+		int passageCount = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < width; y++) {
+				if (grid.hasPassage(x, y, Maze.NORTH)) {
+					passageCount++;
+				}
+				if (grid.hasPassage(x, y, Maze.EAST)) {
+					passageCount++;
+				}
+			}
+		}
+		assertEquals(width * width - 1, passageCount);
+		assertNotNull(Maze.solve(grid, new int[] { 4, 0 }, new int[] { 0, 4 }));
+	}
+
+}
@@ -0,0 +1,306 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Counts what the generators and solvers do, for finding out where the time
+ * goes. Metrics are off until setEnabled(true) is called; while they are off,
+ * each hook costs one read of a volatile field, so they can stay in
+ * production code. While they are on, totals are kept in counters that many
+ * threads can update without contention, and are read with snapshot(). They
+ * are also published as JDK Flight Recorder events, so a recording started
+ * with (for example) -XX:StartFlightRecording shows them alongside the JVM's
+ * own events. An event is only created while a recording has it enabled:
+ *
+ * <ul>
+ * <li>maze.Generation, for each call to MazeGenerator.generate</li>
+ * <li>maze.GenerationProgress, every PROGRESS_INTERVAL locations explored</li>
+ * <li>maze.Solve, for each solved (or unsolvable) maze</li>
+ * </ul>
+ */
+public final class MazeMetrics {
+
+	/** A GenerationProgress event is recorded each time this many more locations have been explored. */
+	public static final int PROGRESS_INTERVAL = 4096;
+
+	/** True if metrics are being collected. */
+	private static volatile boolean enabled;
+
+	/** The number of generation steps taken. */
+	private static final LongAdder steps = new LongAdder();
+
+	/** The number of directions tried that did not lead to an unexplored location. */
+	private static final LongAdder failedProbes = new LongAdder();
+
+	/** The largest frontier any generator has had. */
+	private static final LongAccumulator peakFrontierSize = new LongAccumulator(Math::max, 0);
+
+	/** The number of solves. */
+	private static final LongAdder solves = new LongAdder();
+
+	/** The number of locations expanded by solvers. */
+	private static final LongAdder cellsVisited = new LongAdder();
+
+	/** The number of times a depth-first solver backed out of a dead end. */
+	private static final LongAdder backtracks = new LongAdder();
+
+	/** The most locations any solver has had waiting to be expanded at once, on its stack, queue or heap. */
+	private static final LongAccumulator peakPending = new LongAccumulator(Math::max, 0);
+
+	/** The type of GenerationEvent, which says whether any recording wants them. */
+	private static final EventType GENERATION_TYPE = EventType.getEventType(GenerationEvent.class);
+
+	/** The type of GenerationProgressEvent. */
+	private static final EventType PROGRESS_TYPE = EventType.getEventType(GenerationProgressEvent.class);
+
+	/** The type of SolveEvent. */
+	private static final EventType SOLVE_TYPE = EventType.getEventType(SolveEvent.class);
+
+	private MazeMetrics() {
+	}
+
+	/** Returns true if metrics are being collected. */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/** Starts or stops collecting metrics. Totals collected so far are kept. */
+	public static void setEnabled(boolean enabled) {
+		MazeMetrics.enabled = enabled;
+	}
+
+	/** Sets every total back to zero. */
+	public static void reset() {
+		steps.reset();
+		failedProbes.reset();
+		peakFrontierSize.reset();
+		solves.reset();
+		cellsVisited.reset();
+		backtracks.reset();
+		peakPending.reset();
+	}
+
+	/** Returns the current totals. */
+	public static Snapshot snapshot() {
+		return new Snapshot(steps.sum(), failedProbes.sum(), peakFrontierSize.get(), solves.sum(), cellsVisited.sum(),
+				backtracks.sum(), peakPending.get());
+	}
+
+	/**
+	 * Records a generation step that tried failed directions without finding
+	 * an unexplored location (4 if it found none), leaving done, frontier and
+	 * unexplored with the given sizes.
+	 */
+	static void generationStep(int failed, long done, long frontier, long unexplored) {
+		if (!enabled) {
+			return;
+		}
+		steps.increment();
+		if (failed > 0) {
+			failedProbes.add(failed);
+		}
+		peakFrontierSize.accumulate(frontier);
+		if (failed < 4 && unexplored % PROGRESS_INTERVAL == 0 && PROGRESS_TYPE.isEnabled()) {
+			GenerationProgressEvent event = new GenerationProgressEvent();
+			event.done = done;
+			event.frontier = frontier;
+			event.unexplored = unexplored;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Returns an event to be begun before a whole maze is generated and passed
+	 * to generationFinished after, or null if metrics are off or no recording
+	 * wants the event.
+	 */
+	static GenerationEvent generationStarted(MazeGrid grid) {
+		if (!enabled || !GENERATION_TYPE.isEnabled()) {
+			return null;
+		}
+		GenerationEvent event = new GenerationEvent();
+		event.width = grid.getWidth();
+		event.height = grid.getHeight();
+		event.begin();
+		return event;
+	}
+
+	/** Records the end of the generation that event (which may be null) was begun for. */
+	static void generationFinished(GenerationEvent event, long stepCount) {
+		if (event != null) {
+			event.steps = stepCount;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Records that solver produced solution after backing out of backtrackCount
+	 * dead ends with at most pending locations waiting to be expanded (on its
+	 * stack, queue or heap), and returns solution.
+	 */
+	static MazeSolution solved(MazeSolver solver, MazeSolution solution, int backtrackCount, int pending) {
+		if (!enabled) {
+			return solution;
+		}
+		solves.increment();
+		cellsVisited.add(solution.getExpandedCount());
+		backtracks.add(backtrackCount);
+		peakPending.accumulate(pending);
+		if (!SOLVE_TYPE.isEnabled()) {
+			return solution;
+		}
+		SolveEvent event = new SolveEvent();
+		event.solver = solver.getClass().getSimpleName();
+		event.cellsVisited = solution.getExpandedCount();
+		event.backtracks = backtrackCount;
+		event.peakPending = pending;
+		event.pathLength = solution.isSolved() ? solution.getPathLength() : -1;
+		event.commit();
+		return solution;
+	}
+
+	/** The totals at one moment. */
+	public static class Snapshot {
+
+		/** The number of generation steps taken. */
+		private final long steps;
+
+		/** The number of directions tried that did not lead to an unexplored location. */
+		private final long failedProbes;
+
+		/** The largest frontier any generator has had. */
+		private final long peakFrontierSize;
+
+		/** The number of solves. */
+		private final long solves;
+
+		/** The number of locations expanded by solvers. */
+		private final long cellsVisited;
+
+		/** The number of times a depth-first solver backed out of a dead end. */
+		private final long backtracks;
+
+		/** The most locations any solver has had waiting to be expanded at once. */
+		private final long peakPending;
+
+		Snapshot(long steps, long failedProbes, long peakFrontierSize, long solves, long cellsVisited, long backtracks,
+				long peakPending) {
+			this.steps = steps;
+			this.failedProbes = failedProbes;
+			this.peakFrontierSize = peakFrontierSize;
+			this.solves = solves;
+			this.cellsVisited = cellsVisited;
+			this.backtracks = backtracks;
+			this.peakPending = peakPending;
+		}
+
+		/** Returns the number of generation steps taken. */
+		public long getSteps() {
+			return steps;
+		}
+
+		/** Returns the number of directions tried that did not lead to an unexplored location. */
+		public long getFailedProbes() {
+			return failedProbes;
+		}
+
+		/** Returns the largest frontier any generator has had. */
+		public long getPeakFrontierSize() {
+			return peakFrontierSize;
+		}
+
+		/** Returns the number of solves. */
+		public long getSolves() {
+			return solves;
+		}
+
+		/** Returns the number of locations expanded by solvers. */
+		public long getCellsVisited() {
+			return cellsVisited;
+		}
+
+		/** Returns the number of times a depth-first solver backed out of a dead end. */
+		public long getBacktracks() {
+			return backtracks;
+		}
+
+		/**
+		 * Returns the most locations any solver has had waiting to be expanded
+		 * at once: the depth of a depth-first solver's stack, or the size of a
+		 * breadth-first solver's queue or A*'s heap.
+		 */
+		public long getPeakPending() {
+			return peakPending;
+		}
+
+		@Override
+		public String toString() {
+			return "steps=" + steps + " failedProbes=" + failedProbes + " peakFrontier=" + peakFrontierSize
+					+ " solves=" + solves + " cellsVisited=" + cellsVisited + " backtracks=" + backtracks
+					+ " peakPending=" + peakPending;
+		}
+	}
+
+	/** The generation of a whole maze. */
+	@Name("maze.Generation")
+	@Label("Maze Generation")
+	@Category("Maze")
+	@Description("A whole maze generated by MazeGenerator.generate")
+	static class GenerationEvent extends Event {
+
+		@Label("Width")
+		int width;
+
+		@Label("Height")
+		int height;
+
+		@Label("Steps")
+		long steps;
+	}
+
+	/** The sizes of the generator's lists part way through. */
+	@Name("maze.GenerationProgress")
+	@Label("Maze Generation Progress")
+	@Category("Maze")
+	@Description("The sizes of done, frontier and unexplored during generation")
+	static class GenerationProgressEvent extends Event {
+
+		@Label("Done")
+		long done;
+
+		@Label("Frontier")
+		long frontier;
+
+		@Label("Unexplored")
+		long unexplored;
+	}
+
+	/** One solve. */
+	@Name("maze.Solve")
+	@Label("Maze Solve")
+	@Category("Maze")
+	@Description("A maze solved by a MazeSolver")
+	static class SolveEvent extends Event {
+
+		@Label("Solver")
+		String solver;
+
+		@Label("Cells Visited")
+		int cellsVisited;
+
+		@Label("Backtracks")
+		int backtracks;
+
+		@Label("Peak Pending")
+		@Description("The most locations waiting to be expanded at once, on the solver's stack, queue or heap")
+		int peakPending;
+
+		@Label("Path Length")
+		int pathLength;
+	}
+}
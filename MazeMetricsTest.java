@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+public class MazeMetricsTest {
+
+	@TempDir
+	Path directory;
+
+	@BeforeEach
+	public void setUp() {
+		MazeMetrics.reset();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		MazeMetrics.setEnabled(false);
+		MazeMetrics.reset();
+	}
+
+	@Test
+	public void nothingIsCountedWhileDisabled() {
+		new MazeGenerator(new MazeGrid(10), 0, 0, 1L).generate();
+		MazeMetrics.Snapshot snapshot = MazeMetrics.snapshot();
+		assertEquals(0, snapshot.getSteps());
+		assertEquals(0, snapshot.getSolves());
+	}
+
+	@Test
+	public void generationStepsAreCounted() {
+		MazeMetrics.setEnabled(true);
+		MazeGenerator generator = new MazeGenerator(new MazeGrid(10), 0, 0, 1L);
+		generator.generate();
+		MazeMetrics.Snapshot snapshot = MazeMetrics.snapshot();
+		// Every step either explores a location or moves one to done
+		assertEquals(99 + generator.getDoneCount(), snapshot.getSteps());
+		assertTrue(snapshot.getFailedProbes() >= 4 * generator.getDoneCount());
+		assertTrue(snapshot.getPeakFrontierSize() >= generator.getFrontierSize());
+	}
+
+	@Test
+	public void expandMazeStepsAreCounted() {
+		MazeMetrics.setEnabled(true);
+		MazeGrid grid = new MazeGrid(2);
+		int[][] done = new int[4][];
+		int[][] frontier = { { 0, 0 }, null, null, null };
+		int[][] unexplored = { { 0, 1 }, { 1, 0 }, { 1, 1 }, null };
+		int[] counts = { 0, 1, 3 };
+		Maze.expandMaze(grid, done, frontier, unexplored, counts, null);
+		MazeMetrics.Snapshot snapshot = MazeMetrics.snapshot();
+		assertEquals(1, snapshot.getSteps());
+		assertEquals(2, snapshot.getPeakFrontierSize());
+	}
+
+	@Test
+	public void depthFirstBacktracksAreCounted() {
+		MazeMetrics.setEnabled(true);
+		// A corridor from 0, 0 up to 0, 2, with a dead end at 1, 0
+		MazeGrid grid = new MazeGrid(2, 3);
+		grid.addPassage(0, 0, Maze.EAST);
+		grid.addPassage(0, 0, Maze.NORTH);
+		grid.addPassage(0, 1, Maze.NORTH);
+		MazeSolution solution = new DepthFirstSolver().solve(grid, new int[] { 0, 0 }, new int[] { 0, 2 });
+		MazeMetrics.Snapshot snapshot = MazeMetrics.snapshot();
+		assertEquals(1, snapshot.getSolves());
+		assertEquals(solution.getExpandedCount(), snapshot.getCellsVisited());
+		assertEquals(0, snapshot.getBacktracks());
+		assertEquals(3, snapshot.getPeakPending());
+		// NORTH is tried first, so the search goes up the corridor and backs out of 0, 2 and 0, 1
+		new DepthFirstSolver().solve(grid, new int[] { 0, 0 }, new int[] { 1, 0 });
+		snapshot = MazeMetrics.snapshot();
+		assertEquals(2, snapshot.getSolves());
+		assertEquals(2, snapshot.getBacktracks());
+		assertEquals(3, snapshot.getPeakPending());
+	}
+
+	@Test
+	public void eventsAreRecorded() throws IOException {
+		MazeMetrics.setEnabled(true);
+		Path path = directory.resolve("maze.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("maze.Generation");
+			recording.enable("maze.GenerationProgress");
+			recording.enable("maze.Solve");
+			recording.start();
+			MazeGrid grid = new MazeGrid(100);
+			new MazeGenerator(grid, 0, 0, 3L).generate();
+			new AStarSolver().solve(grid, new int[] { 0, 0 }, new int[] { 99, 99 });
+			recording.stop();
+			recording.dump(path);
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+		int generations = 0;
+		int progress = 0;
+		int solves = 0;
+		for (RecordedEvent event : events) {
+			switch (event.getEventType().getName()) {
+			case "maze.Generation":
+				generations++;
+				assertEquals(100, event.getInt("width"));
+				break;
+			case "maze.GenerationProgress":
+				progress++;
+				break;
+			case "maze.Solve":
+				solves++;
+				assertEquals("AStarSolver", event.getString("solver"));
+				break;
+			default:
+				break;
+			}
+		}
+		assertEquals(1, generations);
+		// 10,000 locations pass 8192 and 4096 unexplored, and reach 0
+		assertEquals(3, progress);
+		assertEquals(1, solves);
+	}
+
+}
@@ -0,0 +1,228 @@
+import java.util.Arrays;
+
+/**
+ * A path through a maze, stored as its start location and the direction of
+ * each step, two bits per step, 32 steps to a long. A path of n steps takes
+ * about n / 4 bytes, where the int[][] form Maze.solve returns takes more
+ * than 24 bytes per location. Locations are worked out only as a Cursor
+ * walks the path, or when toArray is called. A MazePath cannot be changed,
+ * so one instance can be handed to any number of callers and threads
+ * without copying.
+ */
+public final class MazePath {
+
+	/** The number of steps packed into each long. */
+	private static final int STEPS_PER_WORD = 32;
+
+	/** The x coordinate of the first location. */
+	private final int startX;
+
+	/** The y coordinate of the first location. */
+	private final int startY;
+
+	/** The x coordinate of the last location. */
+	private final int endX;
+
+	/** The y coordinate of the last location. */
+	private final int endY;
+
+	/** The number of steps. */
+	private final int steps;
+
+	/** Step i is in direction bits 2 * (i % 32) and up of directions[i / 32]. */
+	private final long[] directions;
+
+	/**
+	 * Creates a path of steps steps from startX, startY, whose directions are
+	 * packed in directions as by setDirection.
+	 */
+	MazePath(int startX, int startY, int steps, long[] directions) {
+		this.startX = startX;
+		this.startY = startY;
+		this.steps = steps;
+		this.directions = directions;
+		int x = startX;
+		int y = startY;
+		for (int i = 0; i < steps; i++) {
+			int d = direction(i);
+			x += Maze.OFFSETS[d][Maze.X];
+			y += Maze.OFFSETS[d][Maze.Y];
+		}
+		endX = x;
+		endY = y;
+	}
+
+	/** Returns an array big enough to hold the directions of steps steps. */
+	static long[] newDirections(int steps) {
+		return new long[(steps + STEPS_PER_WORD - 1) / STEPS_PER_WORD];
+	}
+
+	/** Records in directions, which must not yet hold step i, that step i is in direction d. */
+	static void setDirection(long[] directions, int i, int d) {
+		directions[i / STEPS_PER_WORD] |= (long) d << (2 * (i % STEPS_PER_WORD));
+	}
+
+	/**
+	 * Returns a MazePath with the same locations as path, which is in the form
+	 * returned by Maze.solve, or null if path is null. Throws an exception if
+	 * path has no locations or two consecutive locations are not neighbors.
+	 */
+	public static MazePath of(int[][] path) {
+		if (path == null) {
+			return null;
+		}
+		if (path.length == 0) {
+			throw new IllegalArgumentException("A path must have at least one location");
+		}
+		long[] directions = newDirections(path.length - 1);
+		for (int i = 0; i + 1 < path.length; i++) {
+			int dx = path[i + 1][Maze.X] - path[i][Maze.X];
+			int dy = path[i + 1][Maze.Y] - path[i][Maze.Y];
+			if (Math.abs(dx) + Math.abs(dy) != 1) {
+				throw new IllegalArgumentException("Locations " + i + " and " + (i + 1) + " of path are not neighbors");
+			}
+			setDirection(directions, i, Maze.directionTo(path[i], path[i + 1]));
+		}
+		return new MazePath(path[0][Maze.X], path[0][Maze.Y], path.length - 1, directions);
+	}
+
+	/** Returns the number of locations on the path, including start and goal. */
+	public int length() {
+		return steps + 1;
+	}
+
+	/** Returns the number of steps on the path, one fewer than the number of locations. */
+	public int getStepCount() {
+		return steps;
+	}
+
+	/** Returns the direction (NORTH, EAST, SOUTH, or WEST) of step i, from location i to location i + 1. */
+	public int direction(int i) {
+		if (i < 0 || i >= steps) {
+			throw new IndexOutOfBoundsException("Step " + i + " of " + steps);
+		}
+		return (int) (directions[i / STEPS_PER_WORD] >>> (2 * (i % STEPS_PER_WORD))) & 3;
+	}
+
+	/** Returns the x coordinate of the first location. */
+	public int getStartX() {
+		return startX;
+	}
+
+	/** Returns the y coordinate of the first location. */
+	public int getStartY() {
+		return startY;
+	}
+
+	/** Returns the x coordinate of the last location. */
+	public int getEndX() {
+		return endX;
+	}
+
+	/** Returns the y coordinate of the last location. */
+	public int getEndY() {
+		return endY;
+	}
+
+	/** Returns a cursor on the first location of the path. */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/** Returns a new array of the locations on the path, in the form returned by Maze.solve. */
+	public int[][] toArray() {
+		int[][] path = new int[length()][];
+		Cursor cursor = cursor();
+		path[0] = new int[] { cursor.getX(), cursor.getY() };
+		for (int i = 1; i < path.length; i++) {
+			cursor.next();
+			path[i] = new int[] { cursor.getX(), cursor.getY() };
+		}
+		return path;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof MazePath)) {
+			return false;
+		}
+		MazePath that = (MazePath) o;
+		return startX == that.startX && startY == that.startY && steps == that.steps
+				&& Arrays.equals(directions, that.directions);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 31 * startX + startY;
+		hash = 31 * hash + steps;
+		return 31 * hash + Arrays.hashCode(directions);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.deepToString(toArray());
+	}
+
+	/**
+	 * A position on a MazePath, which starts at the first location and moves
+	 * one step at a time toward the last. For example:
+	 *
+	 * <pre>
+	 * MazePath.Cursor cursor = path.cursor();
+	 * visit(cursor.getX(), cursor.getY());
+	 * while (cursor.hasNext()) {
+	 * 	cursor.next();
+	 * 	visit(cursor.getX(), cursor.getY());
+	 * }
+	 * </pre>
+	 */
+	public final class Cursor {
+
+		/** The number of steps taken so far. */
+		private int index;
+
+		/** The x coordinate of the current location. */
+		private int x = startX;
+
+		/** The y coordinate of the current location. */
+		private int y = startY;
+
+		private Cursor() {
+		}
+
+		/** Returns true if there is a location after the current one. */
+		public boolean hasNext() {
+			return index < steps;
+		}
+
+		/**
+		 * Moves to the next location and returns the direction of the step
+		 * taken. Throws an exception if there is no next location.
+		 */
+		public int next() {
+			if (index >= steps) {
+				throw new IllegalStateException("Already at the end of the path");
+			}
+			int d = direction(index);
+			x += Maze.OFFSETS[d][Maze.X];
+			y += Maze.OFFSETS[d][Maze.Y];
+			index++;
+			return d;
+		}
+
+		/** Returns the position of the current location on the path, from 0. */
+		public int getIndex() {
+			return index;
+		}
+
+		/** Returns the x coordinate of the current location. */
+		public int getX() {
+			return x;
+		}
+
+		/** Returns the y coordinate of the current location. */
+		public int getY() {
+			return y;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+
+
+public class MazePathTest {
+
+	@Test
+	public void arrayRoundTrips() {
+		int[][] array = { { 1, 1 }, { 1, 2 }, { 2, 2 }, { 2, 1 }, { 2, 0 }, { 1, 0 } };
+		MazePath path = MazePath.of(array);
+		assertEquals(6, path.length());
+		assertEquals(5, path.getStepCount());
+		assertEquals(Maze.NORTH, path.direction(0));
+		assertEquals(Maze.EAST, path.direction(1));
+		assertEquals(Maze.SOUTH, path.direction(2));
+		assertEquals(Maze.WEST, path.direction(4));
+		assertEquals(1, path.getEndX());
+		assertEquals(0, path.getEndY());
+		assertEquals(Arrays.deepToString(array), Arrays.deepToString(path.toArray()));
+		assertEquals(path, MazePath.of(path.toArray()));
+		assertNull(MazePath.of(null));
+	}
+
+	@Test
+	public void cursorVisitsEveryLocation() {
+		int[][] array = { { 0, 0 }, { 1, 0 }, { 1, 1 } };
+		MazePath.Cursor cursor = MazePath.of(array).cursor();
+		assertEquals(0, cursor.getX());
+		assertEquals(0, cursor.getY());
+		assertTrue(cursor.hasNext());
+		assertEquals(Maze.EAST, cursor.next());
+		assertEquals(Maze.NORTH, cursor.next());
+		assertEquals(2, cursor.getIndex());
+		assertEquals(1, cursor.getX());
+		assertEquals(1, cursor.getY());
+		assertFalse(cursor.hasNext());
+		assertThrows(IllegalStateException.class, cursor::next);
+	}
+
+	@Test
+	public void pathsThatJumpAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> MazePath.of(new int[][] { { 0, 0 }, { 1, 1 } }));
+	}
+
+	@Test
+	public void emptyPathsAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> MazePath.of(new int[0][]));
+	}
+
+	@Test
+	public void solversReturnCompactPaths() {
+		// A corridor along a maze of height 1, where east and west are one cell number apart
+		MazeGrid row = new MazeGrid(5, 1);
+		for (int x = 0; x < 4; x++) {
+			row.addPassage(x, 0, Maze.EAST);
+		}
+		MazeSolution solution = new BreadthFirstSolver().solve(row, new int[] { 4, 0 }, new int[] { 1, 0 });
+		assertEquals("[[4, 0], [3, 0], [2, 0], [1, 0]]", solution.getMazePath().toString());
+		assertEquals(4, solution.getPathLength());
+		MazeGrid grid = new MazeGrid(100);
+		new MazeGenerator(grid, 0, 0, 12L).generate();
+		for (MazeSolver solver : new MazeSolver[] { new DepthFirstSolver(), new AStarSolver() }) {
+			solution = solver.solve(grid, new int[] { 0, 0 }, new int[] { 99, 99 });
+			MazePath path = solution.getMazePath();
+			assertEquals(Arrays.deepToString(Maze.solve(grid, new int[] { 0, 0 }, new int[] { 99, 99 })),
+					Arrays.deepToString(solution.getPath()));
+			assertEquals(path, MazePath.of(solution.getPath()));
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+/**
+ * Draws a maze with StdDraw while it is being generated. Unlike
+ * Maze.drawMaze, which clears the canvas and redraws every passage, each step
+ * draws only the passage it added, and the canvas is shown only once per
+ * frame rather than after every step.
+ */
+public class MazeRenderer {
+
+	/** Number of locations in each direction. */
+	private final int width;
+
+	/** Show a frame after this many steps (only used when pacing). */
+	private final int stepsPerFrame;
+
+	/** The shortest time between frames, in nanoseconds, or 0 for no limit. */
+	private final long nanosPerFrame;
+
+	/**
+	 * If true, a frame is shown every stepsPerFrame steps and generation
+	 * pauses to keep to the frame rate. If false, generation never pauses and
+	 * a frame is shown whenever nanosPerFrame has passed.
+	 */
+	private final boolean paced;
+
+	/** The number of steps since the last frame was shown. */
+	private int stepsSinceFrame;
+
+	/** The earliest System.nanoTime() at which the next frame may be shown. */
+	private long nextFrameTime;
+
+	/**
+	 * Creates a renderer. Use everyNthStep or atFrameRate; this constructor is
+	 * only visible so that tests can override the methods that use StdDraw.
+	 */
+	MazeRenderer(int width, int stepsPerFrame, double framesPerSecond, boolean paced) {
+		if (stepsPerFrame <= 0 && paced) {
+			throw new IllegalArgumentException("Steps per frame must be positive: " + stepsPerFrame);
+		}
+		this.width = width;
+		this.stepsPerFrame = stepsPerFrame;
+		this.nanosPerFrame = framesPerSecond > 0 ? (long) (1e9 / framesPerSecond) : 0;
+		this.paced = paced;
+	}
+
+	/**
+	 * Returns a renderer for a width x width maze that shows a frame after
+	 * every n steps, pausing generation as needed so that no more than
+	 * framesPerSecond frames are shown each second (if framesPerSecond is
+	 * positive). This is the way to watch a maze being built.
+	 */
+	public static MazeRenderer everyNthStep(int width, int n, double framesPerSecond) {
+		return new MazeRenderer(width, n, framesPerSecond, true);
+	}
+
+	/**
+	 * Returns a renderer for a width x width maze that never pauses
+	 * generation, but shows a frame whenever 1 / framesPerSecond seconds have
+	 * passed since the last one. This is the way to monitor a large maze being
+	 * built at full speed.
+	 */
+	public static MazeRenderer atFrameRate(int width, double framesPerSecond) {
+		if (framesPerSecond <= 0) {
+			throw new IllegalArgumentException("Frame rate must be positive: " + framesPerSecond);
+		}
+		return new MazeRenderer(width, 0, framesPerSecond, false);
+	}
+
+	/** Clears the canvas and draws the entrance and exit. */
+	public void start() {
+		StdDraw.clear(StdDraw.PINK);
+		StdDraw.setPenColor(StdDraw.WHITE);
+		StdDraw.setPenRadius(0.75 / width);
+		// Draw entrance and exit
+		StdDraw.line(0, 0, -1, 0);
+		StdDraw.line(width - 1, width - 1, width, width - 1);
+		StdDraw.show();
+		stepsSinceFrame = 0;
+		nextFrameTime = System.nanoTime() + nanosPerFrame;
+	}
+
+	/** Draws the passage from location x, y to its neighbor in direction. */
+	public void passageAdded(int x, int y, int direction) {
+		StdDraw.line(x, y, x + Maze.OFFSETS[direction][Maze.X], y + Maze.OFFSETS[direction][Maze.Y]);
+	}
+
+	/**
+	 * Draws the passages of the location with cell number cell in grid. Right
+	 * after a generator explores a location, that is only the passage by
+	 * which it was reached.
+	 */
+	public void locationExplored(MazeGrid grid, int cell) {
+		int x = grid.cellX(cell);
+		int y = grid.cellY(cell);
+		for (int d = 0; d < 4; d++) {
+			if (grid.hasPassage(x, y, d)) {
+				passageAdded(x, y, d);
+			}
+		}
+	}
+
+	/**
+	 * Draws the passages in batch, counting each as a step of generation. A
+	 * renderer can be handed to GenerationPublisher.consume as
+	 * renderer::batchAdded; its pauses then hold back generation through the
+	 * publisher's buffer.
+	 */
+	public void batchAdded(PassageBatch batch) {
+		for (int i = 0; i < batch.size(); i++) {
+			passageAdded(batch.getX(i), batch.getY(i), batch.getDirection(i));
+			stepFinished();
+		}
+	}
+
+	/** Records that a step of generation has finished, showing a frame if one is due. */
+	public void stepFinished() {
+		stepsSinceFrame++;
+		if (paced) {
+			if (stepsSinceFrame >= stepsPerFrame) {
+				showFrame();
+				// Keep to the frame rate
+				long wait = nextFrameTime - System.nanoTime();
+				if (wait > 0) {
+					pause((int) (wait / 1000000));
+				}
+				nextFrameTime = Math.max(nextFrameTime, System.nanoTime()) + nanosPerFrame;
+			}
+		} else if ((stepsSinceFrame & 63) == 0) {
+			// Reading the clock costs about as much as a step, so only check it
+			// every 64 steps
+			long now = System.nanoTime();
+			if (now >= nextFrameTime) {
+				showFrame();
+				nextFrameTime = now + nanosPerFrame;
+			}
+		}
+	}
+
+	/** Shows everything drawn so far. */
+	public void finish() {
+		showFrame();
+	}
+
+	/** Shows a frame and starts counting steps toward the next one. */
+	private void showFrame() {
+		show();
+		stepsSinceFrame = 0;
+	}
+
+	/** Copies the offscreen canvas to the screen. */
+	void show() {
+		StdDraw.show();
+	}
+
+	/** Waits for the given number of milliseconds. */
+	void pause(int millis) {
+		StdDraw.pause(millis);
+	}
+}
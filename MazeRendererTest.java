@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class MazeRendererTest {
+
+	/** A renderer that counts frames and pauses instead of drawing. */
+	private static class CountingRenderer extends MazeRenderer {
+
+		/** The number of frames shown. */
+		private int frames;
+
+		/** The number of pauses. */
+		private int pauses;
+
+		CountingRenderer(int stepsPerFrame, double framesPerSecond, boolean paced) {
+			super(10, stepsPerFrame, framesPerSecond, paced);
+		}
+
+		@Override
+		void show() {
+			frames++;
+		}
+
+		@Override
+		void pause(int millis) {
+			pauses++;
+		}
+	}
+
+	@Test
+	public void factoriesRejectBadArguments() {
+		assertThrows(IllegalArgumentException.class, () -> MazeRenderer.everyNthStep(10, 0, 40));
+		assertThrows(IllegalArgumentException.class, () -> MazeRenderer.everyNthStep(10, -1, 0));
+		assertThrows(IllegalArgumentException.class, () -> MazeRenderer.atFrameRate(10, 0));
+		assertThrows(IllegalArgumentException.class, () -> MazeRenderer.atFrameRate(10, -5));
+		assertNotNull(MazeRenderer.everyNthStep(10, 1, 0));
+		assertNotNull(MazeRenderer.atFrameRate(10, 30));
+	}
+
+	@Test
+	public void pacedRendererShowsAFrameEveryNSteps() {
+		CountingRenderer renderer = new CountingRenderer(3, 0, true);
+		for (int i = 0; i < 7; i++) {
+			renderer.stepFinished();
+		}
+		assertEquals(2, renderer.frames);
+		// With no frame rate there is never anything to wait for
+		assertEquals(0, renderer.pauses);
+		renderer.stepFinished();
+		renderer.stepFinished();
+		assertEquals(3, renderer.frames);
+		// Finishing shows the last frame and starts the count over
+		renderer.finish();
+		assertEquals(4, renderer.frames);
+		renderer.stepFinished();
+		renderer.stepFinished();
+		assertEquals(4, renderer.frames);
+	}
+
+	@Test
+	public void pacedRendererKeepsToTheFrameRate() {
+		// One frame every step, at most one frame every 1000 seconds
+		CountingRenderer renderer = new CountingRenderer(1, 0.001, true);
+		renderer.stepFinished();
+		renderer.stepFinished();
+		assertEquals(2, renderer.frames);
+		// The second frame came far too soon after the first
+		assertEquals(1, renderer.pauses);
+	}
+
+	@Test
+	public void unpacedRendererChecksTheClockEvery64Steps() {
+		CountingRenderer renderer = new CountingRenderer(0, 0.001, false);
+		for (int i = 0; i < 63; i++) {
+			renderer.stepFinished();
+		}
+		assertEquals(0, renderer.frames);
+		// The first check finds the first frame due, since start was never called
+		renderer.stepFinished();
+		assertEquals(1, renderer.frames);
+		// The next is not due for 1000 seconds
+		for (int i = 0; i < 640; i++) {
+			renderer.stepFinished();
+		}
+		assertEquals(1, renderer.frames);
+		assertEquals(0, renderer.pauses);
+	}
+
+}
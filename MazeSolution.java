@@ -0,0 +1,79 @@
+/**
+ * The result of a MazeSolver: a path and the work it took to find it. The
+ * path may be given either as a compact MazePath or in the int[][] form, and
+ * is turned into the other form only when that is asked for.
+ */
+public class MazeSolution {
+
+	/** The locations from start to goal, or null if there is no path or they have not been worked out yet. */
+	private volatile int[][] path;
+
+	/** The path as a MazePath, or null if there is no path or it has not been worked out yet. */
+	private volatile MazePath mazePath;
+
+	/** The number of locations whose neighbors were examined. */
+	private final int expandedCount;
+
+	/**
+	 * Creates a solution.
+	 *
+	 * @param path
+	 *            the locations from start to goal, or null if there is no path.
+	 * @param expandedCount
+	 *            the number of locations whose neighbors were examined.
+	 */
+	public MazeSolution(int[][] path, int expandedCount) {
+		this.path = path;
+		this.expandedCount = expandedCount;
+	}
+
+	/**
+	 * Returns a solution like the one the constructor above creates, but with
+	 * the path given as a MazePath, which is turned into the int[][] form only
+	 * if getPath is called.
+	 */
+	public static MazeSolution of(MazePath path, int expandedCount) {
+		MazeSolution solution = new MazeSolution(null, expandedCount);
+		solution.mazePath = path;
+		return solution;
+	}
+
+	/** Returns the locations from start to goal, or null if there is no path. */
+	public int[][] getPath() {
+		int[][] p = path;
+		if (p == null && mazePath != null) {
+			p = mazePath.toArray();
+			path = p;
+		}
+		return p;
+	}
+
+	/** Returns the path as a MazePath, or null if there is no path. */
+	public MazePath getMazePath() {
+		MazePath p = mazePath;
+		if (p == null && path != null) {
+			p = MazePath.of(path);
+			mazePath = p;
+		}
+		return p;
+	}
+
+	/** Returns true if a path was found. */
+	public boolean isSolved() {
+		return path != null || mazePath != null;
+	}
+
+	/** Returns the number of locations on the path, or 0 if there is no path. */
+	public int getPathLength() {
+		MazePath p = mazePath;
+		if (p != null) {
+			return p.length();
+		}
+		return path == null ? 0 : path.length;
+	}
+
+	/** Returns the number of locations whose neighbors were examined. */
+	public int getExpandedCount() {
+		return expandedCount;
+	}
+}
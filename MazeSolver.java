@@ -0,0 +1,14 @@
+/**
+ * A way of finding a path between two locations in a maze. Implementations
+ * reuse their bookkeeping arrays from one solve to the next, so a single
+ * instance must not be used by more than one thread at a time.
+ */
+public interface MazeSolver {
+
+	/**
+	 * Returns the path (sequence of locations) leading from start to goal in
+	 * grid, along with the number of locations expanded while finding it. The
+	 * path is null if there is no such path.
+	 */
+	MazeSolution solve(MazeGrid grid, int[] start, int[] goal);
+}
@@ -0,0 +1,135 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+
+
+public class MazeSolverTest {
+
+	/** One of each kind of solver. */
+	private static final MazeSolver[] SOLVERS = { new DepthFirstSolver(), new BreadthFirstSolver(),
+			new AStarSolver(), new BidirectionalSolver(), new ParallelBreadthFirstSolver(),
+			new LargeMazeSolver() };
+
+	/** Solvers that always find a shortest path. */
+	private static final MazeSolver[] SHORTEST_PATH_SOLVERS = { new BreadthFirstSolver(), new AStarSolver(),
+			new BidirectionalSolver(), new ParallelBreadthFirstSolver() };
+
+	/**
+	 * Returns a width x width maze that is one long corridor snaking up and
+	 * down the columns from 0, 0. For even widths it ends at width - 1, 0.
+	 */
+	private static MazeGrid serpentine(int width) {
+		MazeGrid grid = new MazeGrid(width);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < width - 1; y++) {
+				grid.addPassage(x, y, Maze.NORTH);
+			}
+			if (x + 1 < width) {
+				grid.addPassage(x, x % 2 == 0 ? width - 1 : 0, Maze.EAST);
+			}
+		}
+		return grid;
+	}
+
+	@Test
+	public void depthFirstSolvesEasyMaze() {
+		MazeGrid grid = new MazeGrid(2);
+		grid.addPassage(0, 0, Maze.NORTH);
+		grid.addPassage(0, 1, Maze.EAST);
+		MazeSolution solution = new DepthFirstSolver().solve(grid, new int[] { 0, 0 }, new int[] { 1, 1 });
+		assertEquals("[[0, 0], [0, 1], [1, 1]]", Arrays.deepToString(solution.getPath()));
+		assertEquals(3, solution.getExpandedCount());
+	}
+
+	@Test
+	public void solversSolveFromAnyLocation() {
+		MazeGrid grid = new MazeGrid(2);
+		grid.addPassage(0, 0, Maze.NORTH);
+		grid.addPassage(0, 1, Maze.EAST);
+		for (MazeSolver solver : SOLVERS) {
+			assertEquals("[[1, 1], [0, 1], [0, 0]]",
+					Arrays.deepToString(solver.solve(grid, new int[] { 1, 1 }, new int[] { 0, 0 }).getPath()));
+		}
+	}
+
+	@Test
+	public void solversSolveWhenStartIsGoal() {
+		MazeGrid grid = new MazeGrid(2);
+		for (MazeSolver solver : SOLVERS) {
+			assertEquals("[[1, 0]]",
+					Arrays.deepToString(solver.solve(grid, new int[] { 1, 0 }, new int[] { 1, 0 }).getPath()));
+		}
+	}
+
+	@Test
+	public void solversReportWhenThereIsNoPath() {
+		MazeGrid grid = new MazeGrid(2);
+		grid.addPassage(0, 0, Maze.NORTH);
+		for (MazeSolver solver : SOLVERS) {
+			MazeSolution solution = solver.solve(grid, new int[] { 0, 0 }, new int[] { 1, 1 });
+			assertFalse(solution.isSolved());
+			assertNull(solution.getPath());
+		}
+	}
+
+	@Test
+	public void shortestPathSolversFindShortestPath() {
+		// Every passage is open, so depth first wanders but the others do not
+		MazeGrid grid = MazeTestSupport.open(6);
+		for (MazeSolver solver : SHORTEST_PATH_SOLVERS) {
+			int[][] path = solver.solve(grid, new int[] { 0, 0 }, new int[] { 5, 4 }).getPath();
+			assertEquals(10, path.length);
+			assertEquals("[0, 0]", Arrays.toString(path[0]));
+			assertEquals("[5, 4]", Arrays.toString(path[9]));
+			for (int i = 0; i + 1 < path.length; i++) {
+				int dx = path[i + 1][0] - path[i][0];
+				int dy = path[i + 1][1] - path[i][1];
+				assertEquals(1, Math.abs(dx) + Math.abs(dy));
+				assertTrue(grid.hasPassage(path[i][0], path[i][1], Maze.directionTo(path[i], path[i + 1])));
+			}
+		}
+	}
+
+	@Test
+	public void goalDirectedSolversExpandFewerLocations() {
+		MazeGrid grid = new MazeGrid(200);
+		new MazeGenerator(grid, 0, 0).generate();
+		int[] start = { 100, 100 };
+		int[] goal = Maze.solve(grid, start, new int[] { 0, 0 })[6];
+		int breadthFirst = new BreadthFirstSolver().solve(grid, start, goal).getExpandedCount();
+		int aStar = new AStarSolver().solve(grid, start, goal).getExpandedCount();
+		int bidirectional = new BidirectionalSolver().solve(grid, start, goal).getExpandedCount();
+		assertTrue(aStar <= breadthFirst);
+		assertTrue(bidirectional <= breadthFirst);
+	}
+
+	@Test
+	public void solversReuseStateBetweenMazes() {
+		MazeGrid small = MazeTestSupport.open(3);
+		MazeGrid large = serpentine(10);
+		for (MazeSolver solver : SOLVERS) {
+			assertEquals(5, solver.solve(large, new int[] { 0, 0 }, new int[] { 0, 4 }).getPath().length);
+			assertNotNull(solver.solve(small, new int[] { 0, 0 }, new int[] { 2, 2 }).getPath());
+			assertEquals(100, solver.solve(large, new int[] { 0, 0 }, new int[] { 9, 0 }).getPath().length);
+		}
+	}
+
+	@Test
+	public void solversHandleVeryLongCorridors() {
+		// The path visits all 250,000 locations, which would overflow the stack
+		// of a recursive solver
+		int width = 500;
+		MazeGrid grid = serpentine(width);
+		int[] goal = { width - 1, 0 };
+		String expected = null;
+		for (MazeSolver solver : SOLVERS) {
+			int[][] path = solver.solve(grid, new int[] { 0, 0 }, goal).getPath();
+			assertEquals(width * width, path.length);
+			if (expected == null) {
+				expected = Arrays.deepToString(path);
+			}
+			assertEquals(expected, Arrays.deepToString(path));
+		}
+	}
+
+}
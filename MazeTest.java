@@ -1,6 +1,9 @@
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+import java.lang.management.ManagementFactory;
 import java.util.Arrays;
+import java.util.SplittableRandom;
 
 
 public class MazeTest {
@@ -254,4 +257,139 @@ public class MazeTest {
 				Arrays.deepToString(Maze.solve(passages, new int[] { 0, 0 }, new int[] { 2, 2 })));
 	}
 
+	@Test
+	public void solveFollowsPassagesOnlyFromTheirRecordedEnd() {
+		// 0, 0 leads north to 0, 1, but nothing leads back
+		boolean[][][] passages = new boolean[1][2][4];
+		passages[0][0][Maze.NORTH] = true;
+		assertEquals(2, Maze.solve(passages, new int[] { 0, 0 }, new int[] { 0, 1 }).length);
+		assertNull(Maze.solve(passages, new int[] { 0, 1 }, new int[] { 0, 0 }));
+	}
+
+	@Test
+	public void solveSolvesLongCorridor() {
+		boolean[][][] passages = new boolean[1][100_000][4];
+		for (int y = 0; y + 1 < 100_000; y++) {
+			passages[0][y][Maze.NORTH] = true;
+		}
+		int[][] path = Maze.solve(passages, new int[] { 0, 0 }, new int[] { 0, 99_999 });
+		assertEquals(100_000, path.length);
+		assertArrayEquals(new int[] { 0, 99_999 }, path[99_999]);
+	}
+
+	@Test
+	public void expandMazeWithSameRandomSeedBuildsSameMaze() {
+		String[] mazes = new String[2];
+		for (int m = 0; m < 2; m++) {
+			SplittableRandom random = new SplittableRandom(99);
+			boolean[][][] passages = new boolean[3][3][4];
+			int[][] done = new int[9][];
+			int[][] frontier = new int[9][];
+			frontier[0] = new int[] { 0, 0 };
+			int[][] unexplored = new int[9][];
+			int[] counts = { 0, 1, 8 };
+			int i = 0;
+			for (int x = 0; x < 3; x++) {
+				for (int y = 0; y < 3; y++) {
+					if (x != 0 || y != 0) {
+						unexplored[i] = new int[] { x, y };
+						i++;
+					}
+				}
+			}
+			int[] lastExploredLocation = null;
+			while (counts[2] > 0) {
+				lastExploredLocation = Maze.expandMaze(passages, done, frontier, unexplored, counts,
+						lastExploredLocation, random);
+			}
+			mazes[m] = Arrays.deepToString(passages);
+		}
+		assertEquals(mazes[0], mazes[1]);
+	}
+
+	@Test
+	public void containsAndRemoveWorkOnCellNumbers() {
+		int[] list = { 7, 3, 9, 4 };
+		assertEquals(1, Maze.contains(3, list, list.length));
+		assertEquals(-1, Maze.contains(4, list, 3));
+		Maze.remove(7, list, 3);
+		assertEquals("[9, 3, 9, 4]", Arrays.toString(list));
+	}
+
+	@Test
+	public void cellNumberExpandMazeBuildsSameMazeAsPairExpandMaze() {
+		int width = 6;
+		int cells = width * width;
+		MazeGrid pairGrid = new MazeGrid(width);
+		int[][] done = new int[cells][];
+		int[][] frontier = new int[cells][];
+		frontier[0] = new int[] { 0, 0 };
+		int[][] unexplored = new int[cells][];
+		int[] counts = { 0, 1, cells - 1 };
+		MazeGrid cellGrid = new MazeGrid(width);
+		int[] cellDone = new int[cells];
+		int[] cellFrontier = new int[cells];
+		int[] cellUnexplored = new int[cells];
+		int[] cellCounts = { 0, 1, cells - 1 };
+		int i = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < width; y++) {
+				if (x != 0 || y != 0) {
+					unexplored[i] = new int[] { x, y };
+					cellUnexplored[i] = cellGrid.cell(x, y);
+					i++;
+				}
+			}
+		}
+		SplittableRandom pairRandom = new SplittableRandom(7);
+		int[] lastExploredLocation = null;
+		while (counts[2] > 0) {
+			lastExploredLocation = Maze.expandMaze(pairGrid, done, frontier, unexplored, counts, lastExploredLocation,
+					pairRandom);
+		}
+		SplittableRandom cellRandom = new SplittableRandom(7);
+		int lastExplored = -1;
+		while (cellCounts[2] > 0) {
+			lastExplored = Maze.expandMaze(cellGrid, cellDone, cellFrontier, cellUnexplored, cellCounts,
+					lastExplored, cellRandom);
+		}
+		assertEquals(pairGrid, cellGrid);
+		assertArrayEquals(counts, cellCounts);
+	}
+
+	@Test
+	public void cellNumberExpandMazeDoesNotAllocate() {
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+		int width = 60;
+		int cells = width * width;
+		int[] done = new int[cells];
+		int[] frontier = new int[cells];
+		int[] unexplored = new int[cells];
+		int[] counts = new int[3];
+		SplittableRandom random = new SplittableRandom(1);
+		// Generate one maze to warm up, then measure a second one
+		for (int m = 0; m < 2; m++) {
+			MazeGrid grid = new MazeGrid(width);
+			frontier[0] = 0;
+			for (int c = 1; c < cells; c++) {
+				unexplored[c - 1] = c;
+			}
+			counts[0] = 0;
+			counts[1] = 1;
+			counts[2] = cells - 1;
+			int lastExplored = -1;
+			long before = threads.getCurrentThreadAllocatedBytes();
+			while (counts[2] > 0) {
+				lastExplored = Maze.expandMaze(grid, done, frontier, unexplored, counts, lastExplored, random);
+			}
+			long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+			if (m == 1) {
+				assertEquals(0, allocated);
+			}
+		}
+	}
+
 }
@@ -0,0 +1,41 @@
+/**
+ * Mazes and checks shared by the tests. Like the tests, this class is only
+ * compiled into the test source set.
+ */
+final class MazeTestSupport {
+
+	private MazeTestSupport() {
+	}
+
+	/** Returns a width x width maze in which every passage is open. */
+	static MazeGrid open(int width) {
+		MazeGrid grid = new MazeGrid(width);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < width; y++) {
+				if (y + 1 < width) {
+					grid.addPassage(x, y, Maze.NORTH);
+				}
+				if (x + 1 < width) {
+					grid.addPassage(x, y, Maze.EAST);
+				}
+			}
+		}
+		return grid;
+	}
+
+	/** Returns the number of passages in grid. */
+	static int countPassages(MazeGrid grid) {
+		int count = 0;
+		for (int x = 0; x < grid.getWidth(); x++) {
+			for (int y = 0; y < grid.getHeight(); y++) {
+				if (grid.hasPassage(x, y, Maze.NORTH)) {
+					count++;
+				}
+				if (grid.hasPassage(x, y, Maze.EAST)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,281 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Checks mazes and tidies up passages arrays on several cores. The maze is
+ * split into tiles, strips of whole columns whose cell numbers are
+ * contiguous, and each tile is handled by a task on a ForkJoinPool.
+ *
+ * <p>
+ * validate unions the two ends of every passage in a ConcurrentUnionFind
+ * shared by all the tiles, each tile taking the passages inside it and those
+ * across its east seam. A union that finds its ends already connected means
+ * the passage closes a cycle, and since every successful union joins two
+ * groups, a maze with n locations is connected exactly when n - 1 unions
+ * succeed. This holds however the tiles are scheduled, and takes time
+ * close to linear in the size of the maze (see ConcurrentUnionFind).
+ *
+ * <p>
+ * normalize makes a passages array symmetric, so that every passage is
+ * recorded from both of its ends, as MazeGrid.toPassages does, and code that
+ * follows one-way flags can solve between any two locations. Each tile owns
+ * the passages north of its locations and east of them, so no two tasks
+ * write the same flag.
+ */
+public class MazeValidator {
+
+	/** The number of columns in each tile when none is given. */
+	public static final int DEFAULT_TILE_WIDTH = 64;
+
+	/** The pool on which tiles are checked. */
+	private final ForkJoinPool pool;
+
+	/** The number of columns in each tile (the last may have fewer). */
+	private final int tileWidth;
+
+	/** Creates a validator that uses the common pool and the default tile width. */
+	public MazeValidator() {
+		this(ForkJoinPool.commonPool(), DEFAULT_TILE_WIDTH);
+	}
+
+	/** Creates a validator that handles tiles of tileWidth columns on pool. */
+	public MazeValidator(ForkJoinPool pool, int tileWidth) {
+		if (tileWidth <= 0) {
+			throw new IllegalArgumentException("Tile width must be positive: " + tileWidth);
+		}
+		this.pool = pool;
+		this.tileWidth = tileWidth;
+	}
+
+	/** Returns what validation finds about grid. */
+	public Result validate(MazeGrid grid) {
+		ValidateTask task = new ValidateTask(grid, new ConcurrentUnionFind(grid.getCellCount()), 0, grid.getWidth());
+		pool.invoke(task);
+		return new Result(grid.getCellCount(), task.passages, task.cycles);
+	}
+
+	/**
+	 * Returns what validation finds about passages, in which a passage
+	 * recorded from either end counts once. The passages are first copied
+	 * into a new MazeGrid, on the calling thread, which takes time and
+	 * memory (2 bits per location) proportional to the size of the maze.
+	 */
+	public Result validate(boolean[][][] passages) {
+		return validate(MazeGrid.fromPassages(passages));
+	}
+
+	/**
+	 * Makes passages symmetric: wherever a passage is recorded from one end
+	 * only, it is recorded from the other as well, and flags for passages
+	 * leading out of the maze are cleared. Returns the number of flags changed.
+	 *
+	 * @param passages
+	 *            passages[x][y][direction] is true if there is a passage from
+	 *            location x, y to its neighbor in direction. Directions are
+	 *            specified by the constants NORTH, EAST, SOUTH, and WEST.
+	 */
+	public long normalize(boolean[][][] passages) {
+		NormalizeTask task = new NormalizeTask(passages, 0, passages.length);
+		pool.invoke(task);
+		return task.changed;
+	}
+
+	/** What validation found about a maze. */
+	public static final class Result {
+
+		/** The number of locations in the maze. */
+		private final long locations;
+
+		/** The number of passages. */
+		private final long passages;
+
+		/** The number of passages that closed a cycle. */
+		private final long cycles;
+
+		Result(long locations, long passages, long cycles) {
+			this.locations = locations;
+			this.passages = passages;
+			this.cycles = cycles;
+		}
+
+		/** Returns the number of passages in the maze. */
+		public long getPassageCount() {
+			return passages;
+		}
+
+		/** Returns the number of groups of connected locations. */
+		public long getComponentCount() {
+			return locations - (passages - cycles);
+		}
+
+		/**
+		 * Returns the number of passages that would have to be closed to leave
+		 * no cycles, which is 0 for an acyclic maze.
+		 */
+		public long getCycleCount() {
+			return cycles;
+		}
+
+		/** Returns true if every location can be reached from every other. */
+		public boolean isConnected() {
+			return getComponentCount() == 1;
+		}
+
+		/** Returns true if the maze has no cycles. */
+		public boolean isAcyclic() {
+			return cycles == 0;
+		}
+
+		/** Returns true if there is exactly one path between any two locations. */
+		public boolean isPerfect() {
+			return isConnected() && isAcyclic();
+		}
+
+		@Override
+		public String toString() {
+			return passages + " passages, " + getComponentCount() + " components, " + cycles + " cycles";
+		}
+	}
+
+	/** Unions the ends of the passages in a range of columns, splitting the range in parallel. */
+	private class ValidateTask extends RecursiveAction {
+
+		/** The version of the serialized form. */
+		private static final long serialVersionUID = 1L;
+
+		/** The maze being checked. */
+		private final MazeGrid grid;
+
+		/** Which locations are connected so far. */
+		private final ConcurrentUnionFind sets;
+
+		/** The first column (inclusive) in this task's range. */
+		private final int from;
+
+		/** The last column (exclusive) in this task's range. */
+		private final int to;
+
+		/** The number of passages found in the range, once computed. */
+		private long passages;
+
+		/** The number of those that closed a cycle, once computed. */
+		private long cycles;
+
+		ValidateTask(MazeGrid grid, ConcurrentUnionFind sets, int from, int to) {
+			this.grid = grid;
+			this.sets = sets;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > tileWidth) {
+				int middle = (from + to) >>> 1;
+				ValidateTask left = new ValidateTask(grid, sets, from, middle);
+				ValidateTask right = new ValidateTask(grid, sets, middle, to);
+				invokeAll(left, right);
+				passages = left.passages + right.passages;
+				cycles = left.cycles + right.cycles;
+				return;
+			}
+			int height = grid.getHeight();
+			for (int x = from; x < to; x++) {
+				for (int y = 0; y < height; y++) {
+					int cell = grid.cell(x, y);
+					if (grid.hasPassage(x, y, Maze.NORTH)) {
+						passages++;
+						cycles += sets.union(cell, cell + 1) ? 0 : 1;
+					}
+					if (grid.hasPassage(x, y, Maze.EAST)) {
+						passages++;
+						cycles += sets.union(cell, cell + height) ? 0 : 1;
+					}
+				}
+			}
+		}
+	}
+
+	/** Makes the passages in a range of columns symmetric, splitting the range in parallel. */
+	private class NormalizeTask extends RecursiveAction {
+
+		/** The version of the serialized form. */
+		private static final long serialVersionUID = 1L;
+
+		/** The passages being normalized. */
+		private final boolean[][][] passages;
+
+		/** The first column (inclusive) in this task's range. */
+		private final int from;
+
+		/** The last column (exclusive) in this task's range. */
+		private final int to;
+
+		/** The number of flags changed in the range, once computed. */
+		private long changed;
+
+		NormalizeTask(boolean[][][] passages, int from, int to) {
+			this.passages = passages;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > tileWidth) {
+				int middle = (from + to) >>> 1;
+				NormalizeTask left = new NormalizeTask(passages, from, middle);
+				NormalizeTask right = new NormalizeTask(passages, middle, to);
+				invokeAll(left, right);
+				changed = left.changed + right.changed;
+				return;
+			}
+			int width = passages.length;
+			for (int x = from; x < to; x++) {
+				boolean[][] column = passages[x];
+				int height = column.length;
+				for (int y = 0; y < height; y++) {
+					boolean[] here = column[y];
+					if (y + 1 < height) {
+						changed += connect(here, Maze.NORTH, column[y + 1], Maze.SOUTH);
+					} else {
+						changed += clear(here, Maze.NORTH);
+					}
+					if (x + 1 < width) {
+						changed += connect(here, Maze.EAST, passages[x + 1][y], Maze.WEST);
+					} else {
+						changed += clear(here, Maze.EAST);
+					}
+					if (y == 0) {
+						changed += clear(here, Maze.SOUTH);
+					}
+					if (x == 0) {
+						changed += clear(here, Maze.WEST);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets a[aDirection] and b[bDirection], the two ends of one passage, to
+	 * true if either is, and returns the number of them changed.
+	 */
+	private static int connect(boolean[] a, int aDirection, boolean[] b, int bDirection) {
+		if (a[aDirection] == b[bDirection]) {
+			return 0;
+		}
+		a[aDirection] = true;
+		b[bDirection] = true;
+		return 1;
+	}
+
+	/** Sets flags[direction] to false and returns 1 if it was true, or 0 if not. */
+	private static int clear(boolean[] flags, int direction) {
+		if (!flags[direction]) {
+			return 0;
+		}
+		flags[direction] = false;
+		return 1;
+	}
+}
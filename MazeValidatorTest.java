@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class MazeValidatorTest {
+
+	@Test
+	public void generatedMazesArePerfect() {
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			MazeValidator validator = new MazeValidator(pool, 4);
+			MazeGrid grid = new MazeGrid(70, 45);
+			new MazeGenerator(grid, 0, 0, 8L).generate();
+			MazeValidator.Result result = validator.validate(grid);
+			assertTrue(result.isPerfect(), result.toString());
+			assertEquals(70 * 45 - 1, result.getPassageCount());
+			MazeGrid kruskal = new MazeGrid(70, 45);
+			new KruskalGenerator(pool, 50).generate(kruskal, 9L);
+			assertTrue(validator.validate(kruskal).isPerfect());
+			assertTrue(new MazeValidator().validate(grid.toPassages()).isPerfect());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void findsCyclesAndDisconnectedParts() {
+		MazeValidator validator = new MazeValidator(ForkJoinPool.commonPool(), 1);
+		MazeGrid grid = new MazeGrid(3);
+		MazeValidator.Result empty = validator.validate(grid);
+		assertEquals(9, empty.getComponentCount());
+		assertTrue(empty.isAcyclic());
+		assertFalse(empty.isConnected());
+		// A square of four passages is one cycle, and leaves five locations on their own
+		grid.addPassage(0, 0, Maze.NORTH);
+		grid.addPassage(0, 1, Maze.EAST);
+		grid.addPassage(1, 1, Maze.SOUTH);
+		grid.addPassage(1, 0, Maze.WEST);
+		MazeValidator.Result square = validator.validate(grid);
+		assertEquals(4, square.getPassageCount());
+		assertEquals(1, square.getCycleCount());
+		assertEquals(6, square.getComponentCount());
+		assertFalse(square.isPerfect());
+	}
+
+	@Test
+	public void normalizeMakesPassagesSymmetric() {
+		MazeGrid grid = new MazeGrid(20, 13);
+		new MazeGenerator(grid, 0, 0, 10L).generate();
+		// Record each passage from one end only, the way Maze.addPassage does,
+		// and add flags leading out of the maze
+		boolean[][][] passages = new boolean[20][13][4];
+		for (int x = 0; x < 20; x++) {
+			for (int y = 0; y < 13; y++) {
+				passages[x][y][Maze.NORTH] = grid.hasPassage(x, y, Maze.NORTH) && (x + y) % 2 == 0;
+				passages[x][y + (y + 1 < 13 ? 1 : 0)][Maze.SOUTH] |= grid.hasPassage(x, y, Maze.NORTH)
+						&& (x + y) % 2 != 0;
+				passages[x][y][Maze.EAST] = grid.hasPassage(x, y, Maze.EAST);
+			}
+		}
+		passages[0][5][Maze.WEST] = true;
+		passages[19][0][Maze.EAST] = true;
+		long changed = new MazeValidator(ForkJoinPool.commonPool(), 3).normalize(passages);
+		assertEquals(20 * 13 - 1 + 2, changed);
+		for (int x = 0; x < 20; x++) {
+			for (int y = 0; y < 13; y++) {
+				for (int d = 0; d < 4; d++) {
+					assertEquals(grid.hasPassage(x, y, d), passages[x][y][d]);
+				}
+			}
+		}
+		assertEquals(0, new MazeValidator().normalize(passages));
+	}
+
+}
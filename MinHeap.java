@@ -0,0 +1,91 @@
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of entries for best-first searches such as A*. Each
+ * entry holds a priority (such as an estimated total path length) in its
+ * high 32 bits and a location or node number in its low 32 bits, so entries
+ * with lower priorities come out first, and both numbers must not be
+ * negative. The array is kept between searches, so once it has grown, a
+ * search allocates nothing.
+ */
+class MinHeap {
+
+	/** The entries, in heap order. */
+	private long[] entries = new long[16];
+
+	/** The number of valid entries. */
+	private int size;
+
+	/** Removes every entry. */
+	void clear() {
+		size = 0;
+	}
+
+	/** Returns the number of entries. */
+	int size() {
+		return size;
+	}
+
+	/** Returns true if there are no entries. */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/** Adds n with the given priority. */
+	void push(int priority, int n) {
+		if (size == entries.length) {
+			entries = Arrays.copyOf(entries, size * 2);
+		}
+		long entry = ((long) priority << 32) | n;
+		// Sift up
+		int i = size;
+		size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (entries[parent] <= entry) {
+				break;
+			}
+			entries[i] = entries[parent];
+			i = parent;
+		}
+		entries[i] = entry;
+	}
+
+	/**
+	 * Removes and returns the entry with the lowest priority. Its priority is
+	 * priorityOf(entry) and its number is numberOf(entry).
+	 */
+	long pop() {
+		long top = entries[0];
+		size--;
+		long entry = entries[size];
+		// Sift down
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && entries[child + 1] < entries[child]) {
+				child++;
+			}
+			if (entry <= entries[child]) {
+				break;
+			}
+			entries[i] = entries[child];
+			i = child;
+		}
+		entries[i] = entry;
+		return top;
+	}
+
+	/** Returns the priority held in entry. */
+	static int priorityOf(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	/** Returns the location or node number held in entry. */
+	static int numberOf(long entry) {
+		return (int) entry;
+	}
+}
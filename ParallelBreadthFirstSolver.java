@@ -0,0 +1,305 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solves mazes breadth first, one level at a time, spreading the locations
+ * of each level over a ForkJoinPool. Each level is expanded in three passes:
+ * every location claims the unvisited neighbors it has passages to, keeping
+ * for each neighbor the claim of the location earliest in the level; then
+ * each chunk of the level counts the neighbors it won; then, with the counts
+ * summed into offsets, each chunk writes its neighbors into the next level
+ * and records their predecessors. Since the earliest claim wins and each
+ * chunk writes in order, every level lists the same locations in the same
+ * order as BreadthFirstSolver's queue, so the path and expanded count are
+ * exactly the same as that solver's. Levels too small to be worth splitting
+ * are expanded on the calling thread.
+ */
+public class ParallelBreadthFirstSolver implements MazeSolver {
+
+	/** The number of locations of a level that one task expands, unless told otherwise. */
+	private static final int CHUNK_SIZE = 1024;
+
+	/** Levels with fewer chunks than this are expanded without the pool. */
+	private static final int MIN_PARALLEL_CHUNKS = 4;
+
+	/** The pass that claims unvisited neighbors. */
+	private static final int CLAIM = 0;
+
+	/** The pass that counts the neighbors each chunk won. */
+	private static final int COUNT = 1;
+
+	/** The pass that writes the neighbors each chunk won into the next level. */
+	private static final int WRITE = 2;
+
+	/** Atomic access to the elements of claims. */
+	private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+	/** Atomic access to the elements of visited. */
+	private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	/** The pool on which levels are expanded. */
+	private final ForkJoinPool pool;
+
+	/** The number of locations of a level that one task expands. */
+	private final int chunkSize;
+
+	/** visited bit c is set once the location with cell number c is in a level. */
+	private long[] visited = new long[0];
+
+	/**
+	 * claims[c] is the position in the current level of the earliest location
+	 * to claim c, or Integer.MAX_VALUE if none has. Every claim is cleared
+	 * again when the claimed location is written into the next level.
+	 */
+	private int[] claims = new int[0];
+
+	/** parent[c] is the location from which c was reached. */
+	private int[] parent = new int[0];
+
+	/** The locations of the current level, in order. */
+	private int[] level = new int[0];
+
+	/** The locations of the next level, in order. */
+	private int[] nextLevel = new int[0];
+
+	/** counts[k] is the number of locations won by chunk k, then its offset in nextLevel. */
+	private int[] counts = new int[0];
+
+	/** The maze being solved. */
+	private MazeGrid grid;
+
+	/** The number of locations in level. */
+	private int levelSize;
+
+	/** The cell number of the goal. */
+	private int goalCell;
+
+	/** The position of the goal in nextLevel, or -1 if it has not been reached. */
+	private int goalPosition;
+
+	/** Creates a solver that uses the common pool. */
+	public ParallelBreadthFirstSolver() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/** Creates a solver that expands levels on pool. */
+	public ParallelBreadthFirstSolver(ForkJoinPool pool) {
+		this(pool, CHUNK_SIZE);
+	}
+
+	/** Creates a solver that expands levels on pool, chunkSize locations per task. */
+	ParallelBreadthFirstSolver(ForkJoinPool pool, int chunkSize) {
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public MazeSolution solve(MazeGrid grid, int[] start, int[] goal) {
+		int startCell = grid.cell(start[Maze.X], start[Maze.Y]);
+		goalCell = grid.cell(goal[Maze.X], goal[Maze.Y]);
+		reset(grid);
+		visited[startCell >>> 6] |= 1L << startCell;
+		parent[startCell] = startCell;
+		level[0] = startCell;
+		levelSize = 1;
+		int expanded = 0;
+		int depth = 0;
+		int maxLevelSize = 1;
+		if (startCell == goalCell) {
+			return finish(new MazeSolution(new int[][] { start.clone() }, 1), maxLevelSize);
+		}
+		while (levelSize > 0) {
+			int chunks = (levelSize + chunkSize - 1) / chunkSize;
+			if (counts.length < chunks) {
+				counts = new int[Math.max(chunks, 2 * counts.length)];
+			}
+			goalPosition = -1;
+			run(CLAIM, chunks);
+			run(COUNT, chunks);
+			int total = 0;
+			for (int k = 0; k < chunks; k++) {
+				int count = counts[k];
+				counts[k] = total;
+				total += count;
+			}
+			run(WRITE, chunks);
+			expanded += levelSize;
+			depth++;
+			int[] t = level;
+			level = nextLevel;
+			nextLevel = t;
+			levelSize = total;
+			maxLevelSize = Math.max(maxLevelSize, levelSize);
+			if (goalPosition >= 0) {
+				// The goal is the next location BreadthFirstSolver would dequeue
+				// after the ones before it in this level
+				return finish(new MazeSolution(pathTo(depth), expanded + goalPosition + 1), maxLevelSize);
+			}
+		}
+		return finish(new MazeSolution(null, expanded), maxLevelSize);
+	}
+
+	/** Reports solution to MazeMetrics, forgets the maze, and returns solution. */
+	private MazeSolution finish(MazeSolution solution, int maxLevelSize) {
+		grid = null;
+		return MazeMetrics.solved(this, solution, 0, maxLevelSize);
+	}
+
+	/** Makes the arrays big enough for grid and clears the visited bits. */
+	private void reset(MazeGrid grid) {
+		this.grid = grid;
+		int cells = grid.getCellCount();
+		int words = (cells + 63) >>> 6;
+		if (claims.length < cells) {
+			visited = new long[words];
+			claims = new int[cells];
+			Arrays.fill(claims, Integer.MAX_VALUE);
+			parent = new int[cells];
+			level = new int[cells];
+			nextLevel = new int[cells];
+		} else {
+			Arrays.fill(visited, 0, words, 0);
+		}
+	}
+
+	/** Runs the given pass over the chunks of the current level. */
+	private void run(int pass, int chunks) {
+		if (chunks < MIN_PARALLEL_CHUNKS) {
+			runChunks(pass, 0, chunks);
+		} else {
+			pool.invoke(new LevelTask(pass, 0, chunks));
+		}
+	}
+
+	/** Runs the given pass over chunks from (inclusive) to to (exclusive) of the current level. */
+	private void runChunks(int pass, int from, int to) {
+		for (int k = from; k < to; k++) {
+			int first = k * chunkSize;
+			int last = Math.min(first + chunkSize, levelSize);
+			if (pass == CLAIM) {
+				claimChunk(first, last);
+			} else if (pass == COUNT) {
+				counts[k] = countChunk(first, last);
+			} else {
+				writeChunk(first, last, counts[k]);
+			}
+		}
+	}
+
+	/** Returns the path from start to the goal, which is depth steps from start. */
+	private int[][] pathTo(int depth) {
+		int[][] path = new int[depth + 1][];
+		int cell = goalCell;
+		for (int i = depth; i >= 0; i--) {
+			path[i] = new int[] { grid.cellX(cell), grid.cellY(cell) };
+			cell = parent[cell];
+		}
+		return path;
+	}
+
+	/** Returns the neighbor of here in direction d, or -1 if there is no passage to it. */
+	private int neighbor(int here, int d) {
+		int x = grid.cellX(here);
+		int y = grid.cellY(here);
+		if (!grid.hasPassage(x, y, d)) {
+			return -1;
+		}
+		return grid.cell(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y]);
+	}
+
+	/** Lowers claims[cell] to position unless an earlier position has already claimed it. */
+	private void claim(int cell, int position) {
+		int old = (int) INTS.getVolatile(claims, cell);
+		while (position < old && !INTS.compareAndSet(claims, cell, old, position)) {
+			old = (int) INTS.getVolatile(claims, cell);
+		}
+	}
+
+	/** Claims the unvisited neighbors of the locations from first to last in the level. */
+	private void claimChunk(int first, int last) {
+		for (int i = first; i < last; i++) {
+			int here = level[i];
+			for (int d = 0; d < 4; d++) {
+				int there = neighbor(here, d);
+				if (there >= 0 && (visited[there >>> 6] & (1L << there)) == 0) {
+					claim(there, i);
+				}
+			}
+		}
+	}
+
+	/** Returns the number of neighbors won by the locations from first to last in the level. */
+	private int countChunk(int first, int last) {
+		int count = 0;
+		for (int i = first; i < last; i++) {
+			int here = level[i];
+			for (int d = 0; d < 4; d++) {
+				int there = neighbor(here, d);
+				if (there >= 0 && claims[there] == i) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the neighbors won by the locations from first to last in the
+	 * level into the next level, starting at position.
+	 */
+	private void writeChunk(int first, int last, int position) {
+		for (int i = first; i < last; i++) {
+			int here = level[i];
+			for (int d = 0; d < 4; d++) {
+				int there = neighbor(here, d);
+				if (there >= 0 && claims[there] == i) {
+					// Only the winner writes there, so no other task can see
+					// its claim change to anything that matches its own
+					claims[there] = Integer.MAX_VALUE;
+					LONGS.getAndBitwiseOr(visited, there >>> 6, 1L << there);
+					parent[there] = here;
+					nextLevel[position] = there;
+					if (there == goalCell) {
+						goalPosition = position;
+					}
+					position++;
+				}
+			}
+		}
+	}
+
+	/** One pass over a range of chunks of the current level, splitting the range in parallel. */
+	private class LevelTask extends RecursiveAction {
+
+		/** The version of the serialized form. */
+		private static final long serialVersionUID = 1L;
+
+		/** Which pass this is. */
+		private final int pass;
+
+		/** The first chunk (inclusive) in this task's range. */
+		private final int from;
+
+		/** The last chunk (exclusive) in this task's range. */
+		private final int to;
+
+		LevelTask(int pass, int from, int to) {
+			this.pass = pass;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				runChunks(pass, from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new LevelTask(pass, from, middle), new LevelTask(pass, middle, to));
+			}
+		}
+	}
+}
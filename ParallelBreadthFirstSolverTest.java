@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class ParallelBreadthFirstSolverTest {
+
+	/** Checks that solver finds the same paths as BreadthFirstSolver between random locations in grid. */
+	private static void assertSameAsBreadthFirst(MazeGrid grid, MazeSolver solver, long seed) {
+		BreadthFirstSolver breadthFirst = new BreadthFirstSolver();
+		SplittableRandom random = new SplittableRandom(seed);
+		for (int i = 0; i < 50; i++) {
+			int[] start = { random.nextInt(grid.getWidth()), random.nextInt(grid.getHeight()) };
+			int[] goal = { random.nextInt(grid.getWidth()), random.nextInt(grid.getHeight()) };
+			MazeSolution expected = breadthFirst.solve(grid, start, goal);
+			MazeSolution solution = solver.solve(grid, start, goal);
+			assertEquals(Arrays.deepToString(expected.getPath()), Arrays.deepToString(solution.getPath()));
+			assertEquals(expected.getExpandedCount(), solution.getExpandedCount());
+		}
+	}
+
+	@Test
+	public void matchesBreadthFirstWhenPathsTie() {
+		// In an open maze there are many shortest paths, so the parallel solver
+		// must pick predecessors exactly as the sequential one does
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			assertSameAsBreadthFirst(MazeTestSupport.open(40), new ParallelBreadthFirstSolver(pool, 3), 1L);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void matchesBreadthFirstInGeneratedMazes() {
+		MazeGrid grid = new MazeGrid(80, 50);
+		new MazeGenerator(grid, 0, 0, 6L).generate();
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			assertSameAsBreadthFirst(grid, new ParallelBreadthFirstSolver(pool, 1), 2L);
+		} finally {
+			pool.shutdown();
+		}
+		assertSameAsBreadthFirst(grid, new ParallelBreadthFirstSolver(), 3L);
+	}
+
+	@Test
+	public void reportsWhenThereIsNoPath() {
+		MazeGrid grid = MazeTestSupport.open(10);
+		grid.removePassage(0, 0, Maze.NORTH);
+		grid.removePassage(0, 0, Maze.EAST);
+		MazeSolution solution = new ParallelBreadthFirstSolver().solve(grid, new int[] { 5, 5 }, new int[] { 0, 0 });
+		assertFalse(solution.isSolved());
+		assertEquals(99, solution.getExpandedCount());
+	}
+
+	@Test
+	public void solvesWhenStartIsGoal() {
+		MazeSolution solution = new ParallelBreadthFirstSolver().solve(new MazeGrid(3), new int[] { 1, 2 },
+				new int[] { 1, 2 });
+		assertEquals("[[1, 2]]", Arrays.deepToString(solution.getPath()));
+	}
+
+}
@@ -0,0 +1,200 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates a perfect maze on several cores. The maze is split into square
+ * tiles, and each tile is grown into a spanning tree of its own by a
+ * MazeGenerator running on a ForkJoinPool. The tiles are then joined with a
+ * union-find pass over the seams between them: adjacent tiles are considered
+ * in random order, and one passage is opened across a seam only if the two
+ * tiles are not already connected. The result is still connected and has no
+ * cycles.
+ */
+public class ParallelMazeGenerator {
+
+	/** The tile size used when none is given. */
+	public static final int DEFAULT_TILE_SIZE = 256;
+
+	/** Tiles smaller than this are not worth splitting the work for. */
+	private static final int MIN_TILE_SIZE = 2;
+
+	/** The pool on which tiles are generated. */
+	private final ForkJoinPool pool;
+
+	/** The width and height of each tile (tiles at the edges may be smaller). */
+	private final int tileSize;
+
+	/** Creates a generator that uses the common pool and the default tile size. */
+	public ParallelMazeGenerator() {
+		this(ForkJoinPool.commonPool(), DEFAULT_TILE_SIZE);
+	}
+
+	/** Creates a generator that generates tileSize x tileSize tiles on pool. */
+	public ParallelMazeGenerator(ForkJoinPool pool, int tileSize) {
+		if (tileSize < MIN_TILE_SIZE) {
+			throw new IllegalArgumentException("Tile size must be at least " + MIN_TILE_SIZE + ": " + tileSize);
+		}
+		this.pool = pool;
+		this.tileSize = tileSize;
+	}
+
+	/** Generates a maze in grid, which is assumed to have no passages yet. */
+	public void generate(MazeGrid grid) {
+		generate(grid, new SplittableRandom());
+	}
+
+	/**
+	 * Like generate above, but makes its random choices with a generator
+	 * seeded with seed. The same seed always produces the same maze, however
+	 * the tiles happen to be scheduled.
+	 */
+	public void generate(MazeGrid grid, long seed) {
+		generate(grid, new SplittableRandom(seed));
+	}
+
+	/**
+	 * Like generate above, but makes its random choices with random. Each tile
+	 * gets its own generator split from random before any work starts.
+	 */
+	public void generate(MazeGrid grid, SplittableRandom random) {
+		int columns = (grid.getWidth() + tileSize - 1) / tileSize;
+		int rows = (grid.getHeight() + tileSize - 1) / tileSize;
+		SplittableRandom[] tileRandoms = new SplittableRandom[columns * rows];
+		for (int t = 0; t < tileRandoms.length; t++) {
+			tileRandoms[t] = random.split();
+		}
+		pool.invoke(new TileTask(grid, rows, tileRandoms, 0, tileRandoms.length));
+		joinTiles(grid, columns, rows, random);
+	}
+
+	/** Grows a spanning tree in each of a range of tiles, splitting the range in parallel. */
+	private class TileTask extends RecursiveAction {
+
+		/** The version of the serialized form. */
+		private static final long serialVersionUID = 1L;
+
+		/** The maze being generated. */
+		private final MazeGrid grid;
+
+		/** The number of tiles in each column of tiles. */
+		private final int rows;
+
+		/** The random source for each tile. */
+		private final SplittableRandom[] randoms;
+
+		/** The first tile (inclusive) in this task's range. */
+		private final int from;
+
+		/** The last tile (exclusive) in this task's range. */
+		private final int to;
+
+		TileTask(MazeGrid grid, int rows, SplittableRandom[] randoms, int from, int to) {
+			this.grid = grid;
+			this.rows = rows;
+			this.randoms = randoms;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				generateTile(grid, from / rows, from % rows, randoms[from]);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new TileTask(grid, rows, randoms, from, middle),
+						new TileTask(grid, rows, randoms, middle, to));
+			}
+		}
+	}
+
+	/**
+	 * Grows a spanning tree in the tile in column tx and row ty, then copies
+	 * its passages into grid. The tree is grown in a small grid of its own, so
+	 * only the copy needs to be safe against other tiles sharing words of
+	 * grid's bits.
+	 */
+	private void generateTile(MazeGrid grid, int tx, int ty, SplittableRandom random) {
+		int x0 = tx * tileSize;
+		int y0 = ty * tileSize;
+		int width = Math.min(tileSize, grid.getWidth() - x0);
+		int height = Math.min(tileSize, grid.getHeight() - y0);
+		MazeGrid tile = new MazeGrid(width, height);
+		new MazeGenerator(tile, random.nextInt(width), random.nextInt(height), random).generate();
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (tile.hasPassage(x, y, Maze.NORTH)) {
+					grid.addPassageConcurrently(x0 + x, y0 + y, Maze.NORTH);
+				}
+				if (tile.hasPassage(x, y, Maze.EAST)) {
+					grid.addPassageConcurrently(x0 + x, y0 + y, Maze.EAST);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Opens one passage across the seam between each pair of adjacent tiles
+	 * that are not yet connected, considering the pairs in random order.
+	 */
+	private void joinTiles(MazeGrid grid, int columns, int rows, SplittableRandom random) {
+		// Seam s < columns * rows is the east seam of tile s; seam s >= that is
+		// the north seam of tile s - columns * rows
+		int tiles = columns * rows;
+		int[] seams = new int[2 * tiles];
+		int seamCount = 0;
+		for (int t = 0; t < tiles; t++) {
+			if (t / rows + 1 < columns) {
+				seams[seamCount] = t;
+				seamCount++;
+			}
+			if (t % rows + 1 < rows) {
+				seams[seamCount] = tiles + t;
+				seamCount++;
+			}
+		}
+		int[] parent = new int[tiles];
+		for (int t = 0; t < tiles; t++) {
+			parent[t] = t;
+		}
+		for (int i = 0; i < seamCount; i++) {
+			// Shuffle as we go: swap a random remaining seam into position i
+			int j = i + random.nextInt(seamCount - i);
+			int seam = seams[j];
+			seams[j] = seams[i];
+			seams[i] = seam;
+			boolean east = seam < tiles;
+			int here = east ? seam : seam - tiles;
+			int there = east ? here + rows : here + 1;
+			int hereRoot = find(parent, here);
+			int thereRoot = find(parent, there);
+			if (hereRoot != thereRoot) {
+				parent[thereRoot] = hereRoot;
+				openSeam(grid, here / rows, here % rows, east, random);
+			}
+		}
+	}
+
+	/** Opens a passage at a random place on the east or north seam of a tile. */
+	private void openSeam(MazeGrid grid, int tx, int ty, boolean east, SplittableRandom random) {
+		int x0 = tx * tileSize;
+		int y0 = ty * tileSize;
+		if (east) {
+			int height = Math.min(tileSize, grid.getHeight() - y0);
+			grid.addPassage(x0 + tileSize - 1, y0 + random.nextInt(height), Maze.EAST);
+		} else {
+			int width = Math.min(tileSize, grid.getWidth() - x0);
+			grid.addPassage(x0 + random.nextInt(width), y0 + tileSize - 1, Maze.NORTH);
+		}
+	}
+
+	/** Returns the root of t's set in the union-find forest parent, halving the path. */
+	private static int find(int[] parent, int t) {
+		while (parent[t] != t) {
+			parent[t] = parent[parent[t]];
+			t = parent[t];
+		}
+		return t;
+	}
+}
@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class ParallelMazeGeneratorTest {
+
+	/** Returns the number of locations reachable from 0, 0. */
+	private static int countReachable(MazeGrid grid) {
+		boolean[] reached = new boolean[grid.getCellCount()];
+		int[] queue = new int[grid.getCellCount()];
+		reached[0] = true;
+		int tail = 1;
+		for (int head = 0; head < tail; head++) {
+			int x = grid.cellX(queue[head]);
+			int y = grid.cellY(queue[head]);
+			for (int d = 0; d < 4; d++) {
+				int next = grid.cell(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y]);
+				if (grid.hasPassage(x, y, d) && !reached[next]) {
+					reached[next] = true;
+					queue[tail] = next;
+					tail++;
+				}
+			}
+		}
+		return tail;
+	}
+
+	@Test
+	public void generateBuildsPerfectMaze() {
+		// 7 x 5 tiles, with partial tiles along the top and right edges
+		MazeGrid grid = new MazeGrid(100, 70);
+		new ParallelMazeGenerator(ForkJoinPool.commonPool(), 16).generate(grid);
+		assertEquals(100 * 70 - 1, MazeTestSupport.countPassages(grid));
+		assertEquals(100 * 70, countReachable(grid));
+	}
+
+	@Test
+	public void generateHandlesSingleTile() {
+		MazeGrid grid = new MazeGrid(10, 10);
+		new ParallelMazeGenerator().generate(grid);
+		assertEquals(99, MazeTestSupport.countPassages(grid));
+		assertEquals(100, countReachable(grid));
+	}
+
+	@Test
+	public void generateIsReproducibleFromSeed() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			MazeGrid first = new MazeGrid(90, 90);
+			new ParallelMazeGenerator(pool, 8).generate(first, new SplittableRandom(42));
+			MazeGrid second = new MazeGrid(90, 90);
+			new ParallelMazeGenerator(pool, 8).generate(second, new SplittableRandom(42));
+			assertEquals(first, second);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void generateRejectsTinyTiles() {
+		assertThrows(IllegalArgumentException.class, () -> new ParallelMazeGenerator(ForkJoinPool.commonPool(), 1));
+	}
+
+}
@@ -0,0 +1,75 @@
+/**
+ * A run of consecutive passages added by a generator, as published by a
+ * GenerationPublisher. Passage i of the batch is the one from location
+ * getX(i), getY(i) in direction getDirection(i), and was the
+ * (getFirstIndex() + i)th passage added. A batch cannot be changed, so every
+ * subscriber sees the same instance.
+ */
+public final class PassageBatch {
+
+	/** The number of passages published before this batch. */
+	private final long firstIndex;
+
+	/** The x coordinates of the locations the passages lead from. */
+	private final int[] xs;
+
+	/** The y coordinates of the locations the passages lead from. */
+	private final int[] ys;
+
+	/** The directions of the passages. */
+	private final byte[] directions;
+
+	/** The number of passages in the batch, which may be fewer than the arrays hold. */
+	private final int size;
+
+	/** Creates a batch of the first size passages in the given arrays, which are not copied. */
+	PassageBatch(long firstIndex, int[] xs, int[] ys, byte[] directions, int size) {
+		this.firstIndex = firstIndex;
+		this.xs = xs;
+		this.ys = ys;
+		this.directions = directions;
+		this.size = size;
+	}
+
+	/** Returns the number of passages published before this batch. */
+	public long getFirstIndex() {
+		return firstIndex;
+	}
+
+	/** Returns the number of passages in this batch. */
+	public int size() {
+		return size;
+	}
+
+	/** Returns the x coordinate of the location passage i leads from. */
+	public int getX(int i) {
+		checkIndex(i);
+		return xs[i];
+	}
+
+	/** Returns the y coordinate of the location passage i leads from. */
+	public int getY(int i) {
+		checkIndex(i);
+		return ys[i];
+	}
+
+	/** Returns the direction (NORTH, EAST, SOUTH, or WEST) of passage i. */
+	public int getDirection(int i) {
+		checkIndex(i);
+		return directions[i];
+	}
+
+	/** Adds the passages in this batch to grid, for example to keep a copy of a maze being generated. */
+	public void addTo(MazeGrid grid) {
+		for (int i = 0; i < size; i++) {
+			grid.addPassage(xs[i], ys[i], directions[i]);
+		}
+	}
+
+	/** Throws an exception unless i is the index of a passage in this batch. */
+	private void checkIndex(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Passage " + i + " of " + size);
+		}
+	}
+}
@@ -0,0 +1,20 @@
+/**
+ * The passages of a maze, as a search sees them. Locations are numbered as
+ * MazeGrid.cell numbers them, x * getHeight() + y. A MazeGrid is one, in
+ * which every passage is two-way; Maze.solve wraps a passages array in
+ * another, in which a passage leads only from the location it is recorded at.
+ */
+interface PassageLookup {
+
+	/** Returns the number of locations in the y direction. */
+	int getHeight();
+
+	/** Returns the number of locations in the maze. */
+	int getCellCount();
+
+	/**
+	 * Returns true if there is a passage from location x, y to its neighbor in
+	 * direction. Returns false if that neighbor is outside the maze.
+	 */
+	boolean hasPassage(int x, int y, int direction);
+}
@@ -0,0 +1,192 @@
+import java.util.Arrays;
+
+/**
+ * Answers path queries in a perfect maze (one whose passages form a spanning
+ * tree) without searching. The maze is walked once, from a root location, to
+ * record each location's parent and depth, and a binary-lifting table of
+ * ancestors is built on top. Since the only path between two locations runs
+ * through their lowest common ancestor, the distance between any two
+ * locations takes O(log n) time and the path itself O(log n + path length).
+ * An index never changes once built, so any number of threads may query it
+ * at once; it does not see passages added to or removed from the grid later.
+ */
+public class PathIndex implements MazeSolver {
+
+	/** The maze that was indexed. */
+	private final MazeGrid grid;
+
+	/** depth[c] is the number of steps from the root to c, or -1 if c cannot be reached. */
+	private final int[] depth;
+
+	/**
+	 * ancestors[k][c] is the ancestor 2^k steps above c, or the root if c is
+	 * closer to the root than that. ancestors[0] holds the parents, and the
+	 * root is its own parent.
+	 */
+	private final int[][] ancestors;
+
+	/** Indexes grid, rooted at 0, 0. */
+	public PathIndex(MazeGrid grid) {
+		this(grid, 0, 0);
+	}
+
+	/**
+	 * Indexes grid, rooted at rootX, rootY. Locations that cannot be reached
+	 * from the root are left out, and queries involving them find no path.
+	 * Throws an exception if the passages reachable from the root form a
+	 * loop, since the tree path could then be longer than the shortest one.
+	 */
+	public PathIndex(MazeGrid grid, int rootX, int rootY) {
+		this.grid = grid;
+		int cells = grid.getCellCount();
+		int root = grid.cell(rootX, rootY);
+		int[] parent = new int[cells];
+		depth = new int[cells];
+		Arrays.fill(depth, -1);
+		// Walk the tree breadth first, so parents are always numbered before
+		// their children in queue
+		int[] queue = new int[cells];
+		queue[0] = root;
+		parent[root] = root;
+		depth[root] = 0;
+		int tail = 1;
+		int maxDepth = 0;
+		for (int head = 0; head < tail; head++) {
+			int here = queue[head];
+			int x = grid.cellX(here);
+			int y = grid.cellY(here);
+			for (int d = 0; d < 4; d++) {
+				if (grid.hasPassage(x, y, d)) {
+					int there = grid.cell(x + Maze.OFFSETS[d][Maze.X], y + Maze.OFFSETS[d][Maze.Y]);
+					if (there == parent[here]) {
+						continue;
+					}
+					if (depth[there] >= 0) {
+						throw new IllegalArgumentException("Maze has a loop through " + grid.cellX(there) + ", "
+								+ grid.cellY(there));
+					}
+					parent[there] = here;
+					depth[there] = depth[here] + 1;
+					maxDepth = Math.max(maxDepth, depth[there]);
+					queue[tail] = there;
+					tail++;
+				}
+			}
+		}
+		// Enough levels to climb from the deepest location to the root in one
+		// jump per bit of its depth
+		int levels = 32 - Integer.numberOfLeadingZeros(maxDepth);
+		ancestors = new int[Math.max(levels, 1)][];
+		ancestors[0] = parent;
+		for (int k = 1; k < ancestors.length; k++) {
+			int[] below = ancestors[k - 1];
+			int[] level = new int[cells];
+			for (int i = 0; i < tail; i++) {
+				int c = queue[i];
+				level[c] = below[below[c]];
+			}
+			ancestors[k] = level;
+		}
+	}
+
+	/** Returns the maze that was indexed. */
+	public MazeGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Returns the cell number of the last location shared by the paths from
+	 * the root to a and to b, or -1 if either cannot be reached from the root.
+	 */
+	public int commonAncestor(int a, int b) {
+		if (depth[a] < 0 || depth[b] < 0) {
+			return -1;
+		}
+		if (depth[a] < depth[b]) {
+			int t = a;
+			a = b;
+			b = t;
+		}
+		a = ancestor(a, depth[a] - depth[b]);
+		if (a == b) {
+			return a;
+		}
+		for (int k = ancestors.length - 1; k >= 0; k--) {
+			int[] level = ancestors[k];
+			if (level[a] != level[b]) {
+				a = level[a];
+				b = level[b];
+			}
+		}
+		return ancestors[0][a];
+	}
+
+	/**
+	 * Returns the number of steps on the path between the locations with cell
+	 * numbers a and b, or -1 if there is no such path.
+	 */
+	public int distance(int a, int b) {
+		int common = commonAncestor(a, b);
+		if (common < 0) {
+			return -1;
+		}
+		return depth[a] + depth[b] - 2 * depth[common];
+	}
+
+	/** Like distance above, but takes locations instead of cell numbers. */
+	public int distance(int[] start, int[] goal) {
+		return distance(grid.cell(start[Maze.X], start[Maze.Y]), grid.cell(goal[Maze.X], goal[Maze.Y]));
+	}
+
+	/**
+	 * Returns the path (sequence of locations) leading from start to goal, in
+	 * the same form as Maze.solve, or null if there is no such path.
+	 */
+	public int[][] path(int[] start, int[] goal) {
+		int startCell = grid.cell(start[Maze.X], start[Maze.Y]);
+		int goalCell = grid.cell(goal[Maze.X], goal[Maze.Y]);
+		int common = commonAncestor(startCell, goalCell);
+		if (common < 0) {
+			return null;
+		}
+		int up = depth[startCell] - depth[common];
+		int[][] path = new int[up + depth[goalCell] - depth[common] + 1][];
+		// Climb from start to the common ancestor, then fill in the rest
+		// backward by climbing from goal
+		int[] parent = ancestors[0];
+		int cell = startCell;
+		for (int i = 0; i <= up; i++) {
+			path[i] = new int[] { grid.cellX(cell), grid.cellY(cell) };
+			cell = parent[cell];
+		}
+		cell = goalCell;
+		for (int i = path.length - 1; i > up; i--) {
+			path[i] = new int[] { grid.cellX(cell), grid.cellY(cell) };
+			cell = parent[cell];
+		}
+		return path;
+	}
+
+	/**
+	 * Returns the path from start to goal. No locations are expanded, so the
+	 * expanded count is always 0. Throws an exception if grid is not the maze
+	 * that was indexed.
+	 */
+	@Override
+	public MazeSolution solve(MazeGrid grid, int[] start, int[] goal) {
+		if (grid != this.grid) {
+			throw new IllegalArgumentException("PathIndex can only solve the maze it indexed");
+		}
+		return new MazeSolution(path(start, goal), 0);
+	}
+
+	/** Returns the ancestor steps steps above cell, which must be at least that deep. */
+	private int ancestor(int cell, int steps) {
+		for (int k = 0; steps != 0; k++, steps >>>= 1) {
+			if ((steps & 1) != 0) {
+				cell = ancestors[k][cell];
+			}
+		}
+		return cell;
+	}
+}
@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+
+public class PathIndexTest {
+
+	@Test
+	public void pathsMatchSearch() {
+		MazeGrid grid = new MazeGrid(40, 30);
+		new MazeGenerator(grid, 0, 0, 5L).generate();
+		PathIndex index = new PathIndex(grid, 17, 12);
+		BreadthFirstSolver solver = new BreadthFirstSolver();
+		SplittableRandom random = new SplittableRandom(8);
+		for (int i = 0; i < 200; i++) {
+			int[] start = { random.nextInt(40), random.nextInt(30) };
+			int[] goal = { random.nextInt(40), random.nextInt(30) };
+			int[][] expected = solver.solve(grid, start, goal).getPath();
+			assertEquals(Arrays.deepToString(expected), Arrays.deepToString(index.path(start, goal)));
+			assertEquals(expected.length - 1, index.distance(start, goal));
+		}
+	}
+
+	@Test
+	public void pathFromLocationToItself() {
+		MazeGrid grid = new MazeGrid(3);
+		new MazeGenerator(grid, 0, 0, 1L).generate();
+		PathIndex index = new PathIndex(grid);
+		assertEquals("[[2, 1]]", Arrays.deepToString(index.path(new int[] { 2, 1 }, new int[] { 2, 1 })));
+		assertEquals(0, index.distance(new int[] { 2, 1 }, new int[] { 2, 1 }));
+	}
+
+	@Test
+	public void unreachableLocationsHaveNoPath() {
+		MazeGrid grid = new MazeGrid(2);
+		grid.addPassage(0, 0, Maze.NORTH);
+		PathIndex index = new PathIndex(grid);
+		assertEquals(1, index.distance(new int[] { 0, 1 }, new int[] { 0, 0 }));
+		assertEquals(-1, index.distance(new int[] { 0, 0 }, new int[] { 1, 1 }));
+		assertNull(index.path(new int[] { 1, 0 }, new int[] { 1, 1 }));
+		assertFalse(index.solve(grid, new int[] { 0, 0 }, new int[] { 1, 0 }).isSolved());
+	}
+
+	@Test
+	public void loopsAreRejected() {
+		MazeGrid grid = new MazeGrid(2);
+		grid.addPassage(0, 0, Maze.NORTH);
+		grid.addPassage(0, 0, Maze.EAST);
+		grid.addPassage(0, 1, Maze.EAST);
+		grid.addPassage(1, 0, Maze.NORTH);
+		assertThrows(IllegalArgumentException.class, () -> new PathIndex(grid));
+	}
+
+	@Test
+	public void solveOnlyAcceptsIndexedMaze() {
+		MazeGrid grid = new MazeGrid(2);
+		PathIndex index = new PathIndex(grid);
+		assertThrows(IllegalArgumentException.class,
+				() -> index.solve(new MazeGrid(2), new int[] { 0, 0 }, new int[] { 0, 0 }));
+	}
+
+}
@@ -0,0 +1,38 @@
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A RowSink that keeps only a CRC-32 checksum of the rows it receives, so
+ * two mazes can be compared without either being stored.
+ */
+public class RowChecksum implements RowSink {
+
+	/** The running checksum. */
+	private final CRC32 crc = new CRC32();
+
+	/** The passage bits of one row, two per location. */
+	private byte[] buffer = new byte[0];
+
+	@Override
+	public void acceptRow(int y, boolean[] east, boolean[] north) {
+		int length = (2 * east.length + 7) / 8;
+		if (buffer.length < length) {
+			buffer = new byte[length];
+		}
+		Arrays.fill(buffer, 0, length, (byte) 0);
+		for (int x = 0; x < east.length; x++) {
+			if (north[x]) {
+				buffer[(2 * x) >>> 3] |= 1 << ((2 * x) & 7);
+			}
+			if (east[x]) {
+				buffer[(2 * x + 1) >>> 3] |= 1 << ((2 * x + 1) & 7);
+			}
+		}
+		crc.update(buffer, 0, length);
+	}
+
+	/** Returns the checksum of all rows received so far. */
+	public long getValue() {
+		return crc.getValue();
+	}
+}
@@ -0,0 +1,22 @@
+/**
+ * Receives a maze one row at a time, as a streaming generator such as
+ * EllerGenerator finishes each row.
+ */
+public interface RowSink {
+
+	/**
+	 * Receives row y of a maze. Rows arrive in order, starting from y = 0. The
+	 * arrays are reused for the next row, so they must be copied if they are
+	 * needed after this method returns.
+	 *
+	 * @param y
+	 *            the row number.
+	 * @param east
+	 *            east[x] is true if there is a passage from location x, y to
+	 *            location x + 1, y.
+	 * @param north
+	 *            north[x] is true if there is a passage from location x, y to
+	 *            location x, y + 1.
+	 */
+	void acceptRow(int y, boolean[] east, boolean[] north);
+}
@@ -0,0 +1,119 @@
+import java.util.Arrays;
+
+/**
+ * Bookkeeping for one search: which locations have been reached, the
+ * predecessor of each, and its distance from where the search began. The
+ * arrays are kept between searches and a location counts as reached only if
+ * its stamp equals the current epoch, so starting a new search is O(1) and a
+ * search that touches few locations costs only as much as what it touches.
+ * A search over something other than the locations of a maze, such as the
+ * nodes of a JunctionGraph, can use the same bookkeeping by numbering them
+ * from 0 and passing the count to reset.
+ */
+class SearchState {
+
+	/** parent[c] is the location from which c was reached. */
+	private int[] parent = new int[0];
+
+	/** distance[c] is the number of steps from the search's origin to c. */
+	private int[] distance = new int[0];
+
+	/** c has been reached in this search if stamp[c] == epoch. */
+	private int[] stamp = new int[0];
+
+	/** Identifies the current search. */
+	private int epoch;
+
+	/** Prepares for a new search over the given number of locations (or other nodes). */
+	void reset(int cells) {
+		if (stamp.length < cells) {
+			parent = new int[cells];
+			distance = new int[cells];
+			stamp = new int[cells];
+			epoch = 0;
+		}
+		epoch++;
+		if (epoch == 0) {
+			// The epoch has wrapped around, so old stamps could look current
+			Arrays.fill(stamp, 0);
+			epoch = 1;
+		}
+	}
+
+	/** Returns true if cell has been reached in this search. */
+	boolean isReached(int cell) {
+		return stamp[cell] == epoch;
+	}
+
+	/**
+	 * Returns true if there is a passage from x, y in direction to a location
+	 * that has not been reached in this search.
+	 */
+	boolean canEnter(PassageLookup maze, int x, int y, int direction) {
+		return maze.hasPassage(x, y, direction) && !isReached(
+				(x + Maze.OFFSETS[direction][Maze.X]) * maze.getHeight() + y + Maze.OFFSETS[direction][Maze.Y]);
+	}
+
+	/** Records that cell is where this search begins. */
+	void reachOrigin(int cell) {
+		stamp[cell] = epoch;
+		parent[cell] = cell;
+		distance[cell] = 0;
+	}
+
+	/** Records that cell was reached by a step from from. */
+	void reach(int cell, int from) {
+		stamp[cell] = epoch;
+		parent[cell] = from;
+		distance[cell] = distance[from] + 1;
+	}
+
+	/**
+	 * Records that cell was reached from from, which need not be a neighbor
+	 * (and may be -1 for none), by a path of the given length.
+	 */
+	void reach(int cell, int from, int distance) {
+		stamp[cell] = epoch;
+		parent[cell] = from;
+		this.distance[cell] = distance;
+	}
+
+	/** Returns the location from which cell was reached. */
+	int parentOf(int cell) {
+		return parent[cell];
+	}
+
+	/** Returns the number of steps from the search's origin to cell. */
+	int distanceTo(int cell) {
+		return distance[cell];
+	}
+
+	/**
+	 * Returns the path from this search's origin to cell, built by following
+	 * predecessors back from cell.
+	 */
+	int[][] pathTo(PassageLookup maze, int cell) {
+		int height = maze.getHeight();
+		int[][] path = new int[distance[cell] + 1][];
+		for (int i = path.length - 1; i >= 0; i--) {
+			path[i] = new int[] { cell / height, cell % height };
+			cell = parent[cell];
+		}
+		return path;
+	}
+
+	/**
+	 * Like pathTo, but returns the path as a MazePath, which is built without
+	 * allocating anything per location.
+	 */
+	MazePath mazePathTo(MazeGrid grid, int cell) {
+		int steps = distance[cell];
+		long[] directions = MazePath.newDirections(steps);
+		for (int i = steps - 1; i >= 0; i--) {
+			int from = parent[cell];
+			MazePath.setDirection(directions, i, grid.direction(from, cell));
+			cell = from;
+		}
+		return new MazePath(grid.cellX(cell), grid.cellY(cell), steps, directions);
+	}
+}
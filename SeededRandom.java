@@ -0,0 +1,60 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * A SplitMix64 generator (Steele, Lea and Flood, "Fast splittable
+ * pseudorandom number generators", 2014) whose whole state is one long that
+ * can be saved and restored. Every int or long drawn adds GAMMA to the state
+ * and mixes the result (the bounded methods are built from those), so the
+ * generator can be carried on exactly from a saved state. The algorithm is
+ * written out here rather than borrowed from SplittableRandom, so saved
+ * states do not depend on how the JDK implements it.
+ */
+final class SeededRandom implements RandomGenerator {
+
+	/** The increment added to the state for each draw (the odd integer closest to 2^64 / phi). */
+	private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+	/** The seed the sequence started from. */
+	private final long seed;
+
+	/** The state after the numbers drawn so far. */
+	private long state;
+
+	/** Creates a generator at the start of the sequence for seed. */
+	SeededRandom(long seed) {
+		this(seed, seed);
+	}
+
+	/** Creates a generator that carries on the sequence for seed from state, as returned by getState. */
+	SeededRandom(long seed, long state) {
+		this.seed = seed;
+		this.state = state;
+	}
+
+	/** Returns the seed the sequence started from. */
+	long getSeed() {
+		return seed;
+	}
+
+	/** Returns the state after the numbers drawn so far. */
+	long getState() {
+		return state;
+	}
+
+	@Override
+	public int nextInt() {
+		state += GAMMA;
+		long z = state;
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	@Override
+	public long nextLong() {
+		state += GAMMA;
+		long z = state;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
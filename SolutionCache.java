@@ -0,0 +1,337 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the solutions of recently solved mazes, so that solving the same
+ * maze between the same locations again costs a hash lookup instead of a
+ * search. Mazes are identified by MazeGrid.fingerprint, so two grids with
+ * the same passages share entries. The cache holds at most maxWeight
+ * locations' worth of paths, and when it is full the least recently used
+ * paths are evicted first. Paths are returned as MazePaths, which cannot be
+ * changed, so every caller gets the same instance rather than a copy.
+ *
+ * <p>
+ * The cache is safe to share between threads. Entries are spread over
+ * several segments, each with its own lock, which share one weight limit.
+ * Every use of an entry is stamped from one clock shared by the segments, and
+ * when adding an entry takes the cache over maxWeight, the entry with the
+ * oldest stamp in any segment is evicted, then the next oldest, and so on.
+ * Finding it means looking at the eldest entry of each segment, one lock at a
+ * time, so an entry used by another thread during that look may still be
+ * evicted. Each miss is solved by a new solver from the supplier, so no
+ * solver outlives the call. Two threads that miss on the same key at once may
+ * both solve it; the second answer replaces the first.
+ */
+public class SolutionCache {
+
+	/** The number of segments used unless told otherwise. */
+	private static final int SEGMENTS = 16;
+
+	/** The segments, indexed by the low bits of a key's hash. */
+	private final Segment[] segments;
+
+	/** The largest total weight the cache may hold. */
+	private final long maxWeight;
+
+	/** The total weight of the entries in all segments. */
+	private final AtomicLong totalWeight = new AtomicLong();
+
+	/** Makes a solver for each miss. */
+	private final Supplier<? extends MazeSolver> solvers;
+
+	/** The source of the stamps recording when entries were last used. */
+	private final AtomicLong clock = new AtomicLong();
+
+	/** The number of lookups that found an entry. */
+	private final LongAdder hits = new LongAdder();
+
+	/** The number of lookups that did not. */
+	private final LongAdder misses = new LongAdder();
+
+	/** The number of entries evicted to make room. */
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates a cache holding paths with at most maxWeight locations in all,
+	 * which solves each miss with a new solver made by solvers.
+	 */
+	public SolutionCache(long maxWeight, Supplier<? extends MazeSolver> solvers) {
+		this(maxWeight, SEGMENTS, solvers);
+	}
+
+	/** Like the constructor above, but with the given number of segments, which must be a power of two. */
+	SolutionCache(long maxWeight, int segmentCount, Supplier<? extends MazeSolver> solvers) {
+		if (maxWeight <= 0) {
+			throw new IllegalArgumentException("Cache weight must be positive: " + maxWeight);
+		}
+		if (Integer.bitCount(segmentCount) != 1) {
+			throw new IllegalArgumentException("Segment count must be a power of two: " + segmentCount);
+		}
+		segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = new Segment();
+		}
+		this.maxWeight = maxWeight;
+		this.solvers = solvers;
+	}
+
+	/**
+	 * Returns the path leading from start to goal in grid, or null if there is
+	 * no such path. Computes the fingerprint of grid first, which takes time
+	 * proportional to its size; callers that solve the same maze many times
+	 * should compute it once and use the method below.
+	 */
+	public MazePath solve(MazeGrid grid, int[] start, int[] goal) {
+		return solve(grid, grid.fingerprint(), start, goal);
+	}
+
+	/**
+	 * Like solve above, but takes the fingerprint of grid, which must be what
+	 * grid.fingerprint() returns.
+	 */
+	public MazePath solve(MazeGrid grid, long fingerprint, int[] start, int[] goal) {
+		Key key = new Key(fingerprint, start[Maze.X], start[Maze.Y], goal[Maze.X], goal[Maze.Y]);
+		int index = key.hashCode() & (segments.length - 1);
+		Segment segment = segments[index];
+		segment.lock.lock();
+		try {
+			Entry entry = segment.entries.get(key);
+			if (entry != null) {
+				entry.stamp = clock.incrementAndGet();
+				hits.increment();
+				return entry.path;
+			}
+		} finally {
+			segment.lock.unlock();
+		}
+		misses.increment();
+		MazePath path = solvers.get().solve(grid, start, goal).getMazePath();
+		put(index, key, path);
+		return path;
+	}
+
+	/** Returns the number of lookups that found an entry. */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/** Returns the number of lookups that did not find an entry. */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/** Returns the number of entries evicted to make room for others. */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/** Returns the number of entries held. */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			segment.lock.lock();
+			try {
+				size += segment.entries.size();
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	/** Returns the total weight (locations on paths held) of the entries. */
+	public long getWeight() {
+		return totalWeight.get();
+	}
+
+	/** Removes every entry. The hit, miss and eviction counts are kept. */
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.lock.lock();
+			try {
+				segment.entries.clear();
+				totalWeight.addAndGet(-segment.weight);
+				segment.weight = 0;
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Adds an entry to the segment at index, then evicts the least recently
+	 * used entries in any segment until the cache is within its weight. A path
+	 * too heavy for the whole cache on its own is not kept at all.
+	 */
+	private void put(int index, Key key, MazePath path) {
+		if (weightOf(path) > maxWeight) {
+			return;
+		}
+		segments[index].put(key, path);
+		while (totalWeight.get() > maxWeight) {
+			// Only one segment is locked at a time, so threads evicting at once cannot deadlock
+			Segment oldest = null;
+			long oldestStamp = Long.MAX_VALUE;
+			for (Segment segment : segments) {
+				long stamp = segment.eldestStamp(key);
+				if (stamp < oldestStamp) {
+					oldest = segment;
+					oldestStamp = stamp;
+				}
+			}
+			if (oldest == null) {
+				// Nothing is left but the new entry
+				return;
+			}
+			oldest.evictEldest(key);
+		}
+	}
+
+	/** Returns the weight of an entry holding path, which may be null. */
+	private static long weightOf(MazePath path) {
+		return path == null ? 1 : path.length();
+	}
+
+	/** A path held by the cache, and when it was last used. */
+	private static final class Entry {
+
+		/** The path, or null if there is no path. */
+		private final MazePath path;
+
+		/** The clock reading when this entry was last used. Guarded by its segment's lock. */
+		private long stamp;
+
+		/** Creates an entry last used at stamp. */
+		Entry(MazePath path, long stamp) {
+			this.path = path;
+			this.stamp = stamp;
+		}
+	}
+
+	/** A maze, identified by its fingerprint, and the locations to solve between. */
+	private static final class Key {
+
+		/** The fingerprint of the maze. */
+		private final long fingerprint;
+
+		/** The x coordinate of start. */
+		private final int startX;
+
+		/** The y coordinate of start. */
+		private final int startY;
+
+		/** The x coordinate of goal. */
+		private final int goalX;
+
+		/** The y coordinate of goal. */
+		private final int goalY;
+
+		/** Creates a key. */
+		Key(long fingerprint, int startX, int startY, int goalX, int goalY) {
+			this.fingerprint = fingerprint;
+			this.startX = startX;
+			this.startY = startY;
+			this.goalX = goalX;
+			this.goalY = goalY;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key that = (Key) o;
+			return fingerprint == that.fingerprint && startX == that.startX && startY == that.startY
+					&& goalX == that.goalX && goalY == that.goalY;
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = Long.hashCode(fingerprint);
+			hash = 31 * hash + startX;
+			hash = 31 * hash + startY;
+			hash = 31 * hash + goalX;
+			hash = 31 * hash + goalY;
+			// Spread the high bits into the low ones used to choose a segment
+			return hash ^ (hash >>> 16);
+		}
+	}
+
+	/** Part of the cache, with its own lock. */
+	private final class Segment {
+
+		/** Guards entries and weight. */
+		private final ReentrantLock lock = new ReentrantLock();
+
+		/** The entries, least recently used (and so lowest stamp) first. */
+		private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+		/** The total weight of entries in this segment. */
+		private long weight;
+
+		/** Adds an entry, replacing any with the same key. */
+		void put(Key key, MazePath path) {
+			lock.lock();
+			try {
+				long added = weightOf(path);
+				Entry old = entries.put(key, new Entry(path, clock.incrementAndGet()));
+				if (old != null) {
+					added -= weightOf(old.path);
+				}
+				weight += added;
+				totalWeight.addAndGet(added);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Returns the stamp of the least recently used entry other than the one
+		 * for keep, or Long.MAX_VALUE if there is no such entry.
+		 */
+		long eldestStamp(Key keep) {
+			lock.lock();
+			try {
+				Map.Entry<Key, Entry> eldest = eldest(keep);
+				return eldest == null ? Long.MAX_VALUE : eldest.getValue().stamp;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/** Evicts the least recently used entry other than the one for keep, if there is one. */
+		void evictEldest(Key keep) {
+			lock.lock();
+			try {
+				Map.Entry<Key, Entry> eldest = eldest(keep);
+				if (eldest == null) {
+					return;
+				}
+				long removed = weightOf(eldest.getValue().path);
+				entries.remove(eldest.getKey());
+				weight -= removed;
+				totalWeight.addAndGet(-removed);
+				evictions.increment();
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Returns the least recently used entry other than the one for keep, or
+		 * null. The caller must hold the lock.
+		 */
+		private Map.Entry<Key, Entry> eldest(Key keep) {
+			for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+				if (!entry.getKey().equals(keep)) {
+					return entry;
+				}
+			}
+			return null;
+		}
+	}
+}
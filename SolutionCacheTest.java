@@ -0,0 +1,162 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+
+public class SolutionCacheTest {
+
+	/** Returns a generated width x width maze. */
+	private static MazeGrid generate(int width, long seed) {
+		MazeGrid grid = new MazeGrid(width);
+		new MazeGenerator(grid, 0, 0, seed).generate();
+		return grid;
+	}
+
+	@Test
+	public void repeatedSolvesShareOnePath() {
+		MazeGrid grid = generate(20, 1L);
+		SolutionCache cache = new SolutionCache(10_000, BreadthFirstSolver::new);
+		int[] start = { 0, 0 };
+		int[] goal = { 19, 19 };
+		MazePath first = cache.solve(grid, start, goal);
+		MazePath second = cache.solve(grid, start, goal);
+		assertSame(first, second);
+		assertEquals(Arrays.deepToString(Maze.solve(grid, start, goal)), first.toString());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(first.length(), cache.getWeight());
+	}
+
+	@Test
+	public void mazesWithTheSamePassagesShareEntries() {
+		MazeGrid grid = generate(10, 3L);
+		MazeGrid copy = MazeGrid.fromPassages(grid.toPassages());
+		assertEquals(grid.fingerprint(), copy.fingerprint());
+		assertNotEquals(grid.fingerprint(), generate(10, 4L).fingerprint());
+		SolutionCache cache = new SolutionCache(10_000, AStarSolver::new);
+		int[] start = { 0, 0 };
+		int[] goal = { 9, 0 };
+		assertSame(cache.solve(grid, start, goal), cache.solve(copy, copy.fingerprint(), start, goal));
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void missingPathsAreCached() {
+		MazeGrid grid = new MazeGrid(2);
+		SolutionCache cache = new SolutionCache(100, BreadthFirstSolver::new);
+		assertNull(cache.solve(grid, new int[] { 0, 0 }, new int[] { 1, 1 }));
+		assertNull(cache.solve(grid, new int[] { 0, 0 }, new int[] { 1, 1 }));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void leastRecentlyUsedPathsAreEvicted() {
+		// A corridor from 0, 0 up to 0, 19, so a path to 0, y has y + 1 locations
+		MazeGrid grid = new MazeGrid(1, 20);
+		for (int y = 0; y < 19; y++) {
+			grid.addPassage(0, y, Maze.NORTH);
+		}
+		SolutionCache cache = new SolutionCache(12, 1, BreadthFirstSolver::new);
+		int[] start = { 0, 0 };
+		cache.solve(grid, start, new int[] { 0, 3 });
+		cache.solve(grid, start, new int[] { 0, 4 });
+		cache.solve(grid, start, new int[] { 0, 3 });
+		// Adding 6 more locations to the 9 held pushes out 0, 4, which was used least recently
+		cache.solve(grid, start, new int[] { 0, 5 });
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(10, cache.getWeight());
+		cache.solve(grid, start, new int[] { 0, 3 });
+		assertEquals(2, cache.getHitCount());
+		// A path heavier than the whole cache is returned but not kept
+		assertEquals(16, cache.solve(grid, start, new int[] { 0, 15 }).length());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void segmentsShareOneWeightLimit() {
+		MazeGrid grid = new MazeGrid(1, 40);
+		for (int y = 0; y < 39; y++) {
+			grid.addPassage(0, y, Maze.NORTH);
+		}
+		// With the default segments, a path may weigh far more than 32 / 16 locations
+		SolutionCache cache = new SolutionCache(32, BreadthFirstSolver::new);
+		int[] start = { 0, 0 };
+		assertSame(cache.solve(grid, start, new int[] { 0, 19 }), cache.solve(grid, start, new int[] { 0, 19 }));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(20, cache.getWeight());
+		// Keeping another 19 locations means evicting the first path, whichever segment it is in
+		cache.solve(grid, start, new int[] { 0, 18 });
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(19, cache.getWeight());
+		assertEquals(1, cache.size());
+		for (int y = 0; y < 40; y++) {
+			cache.solve(grid, start, new int[] { 0, y });
+			assertTrue(cache.getWeight() <= 32);
+		}
+	}
+
+	@Test
+	public void leastRecentlyUsedPathsInAnySegmentAreEvictedFirst() {
+		MazeGrid grid = new MazeGrid(1, 20);
+		for (int y = 0; y < 19; y++) {
+			grid.addPassage(0, y, Maze.NORTH);
+		}
+		int[] start = { 0, 0 };
+		// The order must not depend on which segments the paths land in
+		for (int segmentCount : new int[] { 1, 2, 16 }) {
+			SolutionCache cache = new SolutionCache(20, segmentCount, BreadthFirstSolver::new);
+			for (int y = 1; y <= 4; y++) {
+				cache.solve(grid, start, new int[] { 0, y });
+			}
+			cache.solve(grid, start, new int[] { 0, 1 });
+			cache.solve(grid, start, new int[] { 0, 5 });
+			assertEquals(0, cache.getEvictionCount());
+			// Adding 7 more locations to the 20 held pushes out 0, 2 and then 0, 3
+			cache.solve(grid, start, new int[] { 0, 6 });
+			assertEquals(2, cache.getEvictionCount());
+			assertEquals(20, cache.getWeight());
+			for (int y : new int[] { 1, 4, 5, 6 }) {
+				cache.solve(grid, start, new int[] { 0, y });
+			}
+			assertEquals(5, cache.getHitCount());
+			cache.solve(grid, start, new int[] { 0, 2 });
+			assertEquals(5, cache.getHitCount());
+		}
+	}
+
+	@Test
+	public void threadsCanShareACache() throws Exception {
+		MazeGrid grid = generate(50, 9L);
+		long fingerprint = grid.fingerprint();
+		SolutionCache cache = new SolutionCache(1_000_000, AStarSolver::new);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<?>[] futures = new Future<?>[8];
+			for (int t = 0; t < futures.length; t++) {
+				futures[t] = executor.submit(() -> {
+					for (int i = 0; i < 200; i++) {
+						int[] goal = { i % 50, (i * 7) % 50 };
+						MazePath path = cache.solve(grid, fingerprint, new int[] { 0, 0 }, goal);
+						assertEquals(goal[0], path.getEndX());
+						assertEquals(goal[1], path.getEndY());
+					}
+				});
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		assertEquals(8 * 200, cache.getHitCount() + cache.getMissCount());
+		// i and i + 50 lead to the same goal
+		assertEquals(50, cache.size());
+	}
+
+}
@@ -0,0 +1,69 @@
+package mazebench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Time to generate a whole width x width maze with each scalable generator. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class GenerationBenchmark {
+
+	@Param({ "20", "256", "1024", "4096" })
+	int width;
+
+	/** A new seed for each maze, so every invocation builds a different one. */
+	long seed;
+
+	@Benchmark
+	public Object mazeGenerator() {
+		Object grid = Mazes.newGrid(width);
+		Mazes.generate(grid, seed++);
+		return grid;
+	}
+
+	@Benchmark
+	public Object parallelMazeGenerator(ParallelState state) {
+		Object grid = Mazes.newGrid(width);
+		Mazes.generateParallel(state.generator, grid, seed++);
+		return grid;
+	}
+
+	@Benchmark
+	public Object kruskalGenerator(KruskalState state) {
+		Object grid = Mazes.newGrid(width);
+		Mazes.generateKruskal(state.generator, grid, seed++);
+		return grid;
+	}
+
+	@Benchmark
+	public long ellerGenerator() {
+		return Mazes.generateRows(width, seed++);
+	}
+
+	/** One ParallelMazeGenerator shared by all invocations. */
+	@State(Scope.Benchmark)
+	public static class ParallelState {
+
+		final Object generator = Mazes.newParallelGenerator();
+	}
+
+	/** One KruskalGenerator shared by all invocations. */
+	@State(Scope.Benchmark)
+	public static class KruskalState {
+
+		final Object generator = Mazes.newKruskalGenerator();
+	}
+}
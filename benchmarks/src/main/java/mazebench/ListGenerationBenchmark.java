@@ -0,0 +1,61 @@
+package mazebench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to generate a whole maze with the original list-based
+ * Maze.expandMaze loop. Each step searches the lists, so generation takes
+ * time quadratic in the number of locations and only small widths are run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListGenerationBenchmark {
+
+	@Param({ "20", "64", "128" })
+	int width;
+
+	/** A new seed for each maze, so every invocation builds a different one. */
+	long seed;
+
+	@Benchmark
+	public Object expandMaze() {
+		int cells = width * width;
+		Object grid = Mazes.newGrid(width);
+		int[][] done = new int[cells][];
+		int[][] frontier = new int[cells][];
+		frontier[0] = new int[] { 0, 0 };
+		int[][] unexplored = new int[cells][];
+		int[] counts = { 0, 1, cells - 1 };
+		int i = 0;
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < width; y++) {
+				if (x != 0 || y != 0) {
+					unexplored[i] = new int[] { x, y };
+					i++;
+				}
+			}
+		}
+		SplittableRandom random = new SplittableRandom(seed++);
+		int[] lastExploredLocation = null;
+		while (counts[2] > 0) {
+			lastExploredLocation = Mazes.expandMaze(grid, done, frontier, unexplored, counts, lastExploredLocation,
+					random);
+		}
+		return grid;
+	}
+}
@@ -0,0 +1,65 @@
+package mazebench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cost of Maze.contains, Maze.remove and Maze.addToFront on a list of size pairs. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListPrimitivesBenchmark {
+
+	@Param({ "16", "1024", "65536" })
+	int size;
+
+	int[][] list;
+
+	/** The first pair in list, which remove takes out and then puts back. */
+	int[] first;
+
+	/** A copy of the last pair in list, which contains has to search for longest. */
+	int[] last;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		list = new int[size][];
+		for (int i = 0; i < size; i++) {
+			list[i] = new int[] { i / 256, i % 256 };
+		}
+		first = list[0];
+		last = list[size - 1].clone();
+	}
+
+	@Benchmark
+	public int containsLast() throws Throwable {
+		return (int) Mazes.CONTAINS.invokeExact(last, list, size);
+	}
+
+	@Benchmark
+	public int[][] removeFirst() throws Throwable {
+		Mazes.REMOVE.invokeExact(first, list, size);
+		// Undo the removal, so every invocation does the same work
+		list[size - 1] = list[0];
+		list[0] = first;
+		return list;
+	}
+
+	@Benchmark
+	public int[][] addToFront() throws Throwable {
+		return (int[][]) Mazes.ADD_TO_FRONT.invokeExact(first, list);
+	}
+}
@@ -0,0 +1,255 @@
+package mazebench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+/**
+ * Calls into the maze classes for the benchmarks. Those classes live in the
+ * default package, which JMH does not allow benchmarks in and which code in
+ * a named package cannot refer to, so they are reached through method
+ * handles. The handles are static final, so the JIT treats them as constants
+ * and inlines the calls just like direct ones.
+ */
+final class Mazes {
+
+	/** MazeGrid(int width), returning Object. */
+	private static final MethodHandle NEW_GRID;
+
+	/** MazeGenerator(MazeGrid, int, int, long), returning Object. */
+	private static final MethodHandle NEW_GENERATOR;
+
+	/** MazeGenerator.generate(). */
+	private static final MethodHandle GENERATE;
+
+	/** ParallelMazeGenerator(), returning Object. */
+	private static final MethodHandle NEW_PARALLEL_GENERATOR;
+
+	/** ParallelMazeGenerator.generate(MazeGrid, long). */
+	private static final MethodHandle GENERATE_PARALLEL;
+
+	/** KruskalGenerator(), returning Object. */
+	private static final MethodHandle NEW_KRUSKAL_GENERATOR;
+
+	/** KruskalGenerator.generate(MazeGrid, long). */
+	private static final MethodHandle GENERATE_KRUSKAL;
+
+	/** EllerGenerator(int, int, long), returning Object. */
+	private static final MethodHandle NEW_ELLER_GENERATOR;
+
+	/** RowChecksum(), returning Object. */
+	private static final MethodHandle NEW_ROW_CHECKSUM;
+
+	/** EllerGenerator.generate(RowSink). */
+	private static final MethodHandle GENERATE_ROWS;
+
+	/** RowChecksum.getValue(). */
+	private static final MethodHandle CHECKSUM_VALUE;
+
+	/** Maze.expandMaze(MazeGrid, int[][], int[][], int[][], int[], int[], RandomGenerator). */
+	private static final MethodHandle EXPAND_MAZE;
+
+	/** MazeSolver.solve(MazeGrid, int[], int[]), returning Object. */
+	private static final MethodHandle SOLVE;
+
+	/** MazeSolution.getPath(). */
+	private static final MethodHandle PATH;
+
+	/** Maze.contains(int[], int[][], int). */
+	static final MethodHandle CONTAINS;
+
+	/** Maze.remove(int[], int[][], int). */
+	static final MethodHandle REMOVE;
+
+	/** Maze.addToFront(int[], int[][]). */
+	static final MethodHandle ADD_TO_FRONT;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			Class<?> maze = Class.forName("Maze");
+			Class<?> grid = Class.forName("MazeGrid");
+			Class<?> generator = Class.forName("MazeGenerator");
+			Class<?> parallelGenerator = Class.forName("ParallelMazeGenerator");
+			Class<?> kruskalGenerator = Class.forName("KruskalGenerator");
+			Class<?> ellerGenerator = Class.forName("EllerGenerator");
+			Class<?> rowSink = Class.forName("RowSink");
+			Class<?> rowChecksum = Class.forName("RowChecksum");
+			Class<?> solver = Class.forName("MazeSolver");
+			Class<?> solution = Class.forName("MazeSolution");
+			NEW_GRID = lookup.findConstructor(grid, MethodType.methodType(void.class, int.class))
+					.asType(MethodType.methodType(Object.class, int.class));
+			NEW_GENERATOR = lookup.findConstructor(generator,
+					MethodType.methodType(void.class, grid, int.class, int.class, long.class))
+					.asType(MethodType.methodType(Object.class, Object.class, int.class, int.class, long.class));
+			GENERATE = lookup.findVirtual(generator, "generate", MethodType.methodType(void.class))
+					.asType(MethodType.methodType(void.class, Object.class));
+			NEW_PARALLEL_GENERATOR = lookup.findConstructor(parallelGenerator, MethodType.methodType(void.class))
+					.asType(MethodType.methodType(Object.class));
+			GENERATE_PARALLEL = lookup.findVirtual(parallelGenerator, "generate",
+					MethodType.methodType(void.class, grid, long.class))
+					.asType(MethodType.methodType(void.class, Object.class, Object.class, long.class));
+			NEW_KRUSKAL_GENERATOR = lookup.findConstructor(kruskalGenerator, MethodType.methodType(void.class))
+					.asType(MethodType.methodType(Object.class));
+			GENERATE_KRUSKAL = lookup.findVirtual(kruskalGenerator, "generate",
+					MethodType.methodType(void.class, grid, long.class))
+					.asType(MethodType.methodType(void.class, Object.class, Object.class, long.class));
+			NEW_ELLER_GENERATOR = lookup.findConstructor(ellerGenerator,
+					MethodType.methodType(void.class, int.class, int.class, long.class))
+					.asType(MethodType.methodType(Object.class, int.class, int.class, long.class));
+			NEW_ROW_CHECKSUM = lookup.findConstructor(rowChecksum, MethodType.methodType(void.class))
+					.asType(MethodType.methodType(Object.class));
+			GENERATE_ROWS = lookup.findVirtual(ellerGenerator, "generate", MethodType.methodType(void.class, rowSink))
+					.asType(MethodType.methodType(void.class, Object.class, Object.class));
+			CHECKSUM_VALUE = lookup.findVirtual(rowChecksum, "getValue", MethodType.methodType(long.class))
+					.asType(MethodType.methodType(long.class, Object.class));
+			EXPAND_MAZE = lookup.findStatic(maze, "expandMaze",
+					MethodType.methodType(int[].class, grid, int[][].class, int[][].class, int[][].class, int[].class,
+							int[].class, RandomGenerator.class))
+					.asType(MethodType.methodType(int[].class, Object.class, int[][].class, int[][].class,
+							int[][].class, int[].class, int[].class, RandomGenerator.class));
+			SOLVE = lookup.findVirtual(solver, "solve", MethodType.methodType(solution, grid, int[].class, int[].class))
+					.asType(MethodType.methodType(Object.class, Object.class, Object.class, int[].class, int[].class));
+			PATH = lookup.findVirtual(solution, "getPath", MethodType.methodType(int[][].class))
+					.asType(MethodType.methodType(int[][].class, Object.class));
+			CONTAINS = lookup.findStatic(maze, "contains",
+					MethodType.methodType(int.class, int[].class, int[][].class, int.class));
+			REMOVE = lookup.findStatic(maze, "remove",
+					MethodType.methodType(void.class, int[].class, int[][].class, int.class));
+			ADD_TO_FRONT = lookup.findStatic(maze, "addToFront",
+					MethodType.methodType(int[][].class, int[].class, int[][].class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private Mazes() {
+	}
+
+	/** Returns a new width x width MazeGrid with no passages. */
+	static Object newGrid(int width) {
+		try {
+			return (Object) NEW_GRID.invokeExact(width);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Generates a maze in grid with a MazeGenerator seeded with seed. */
+	static void generate(Object grid, long seed) {
+		try {
+			Object generator = (Object) NEW_GENERATOR.invokeExact(grid, 0, 0, seed);
+			GENERATE.invokeExact(generator);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Returns a new ParallelMazeGenerator using the common pool. */
+	static Object newParallelGenerator() {
+		try {
+			return (Object) NEW_PARALLEL_GENERATOR.invokeExact();
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Generates a maze in grid with generator, a ParallelMazeGenerator. */
+	static void generateParallel(Object generator, Object grid, long seed) {
+		try {
+			GENERATE_PARALLEL.invokeExact(generator, grid, seed);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Returns a new KruskalGenerator using the common pool. */
+	static Object newKruskalGenerator() {
+		try {
+			return (Object) NEW_KRUSKAL_GENERATOR.invokeExact();
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Generates a maze in grid with generator, a KruskalGenerator. */
+	static void generateKruskal(Object generator, Object grid, long seed) {
+		try {
+			GENERATE_KRUSKAL.invokeExact(generator, grid, seed);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Streams a width x width maze from an EllerGenerator and returns its row checksum. */
+	static long generateRows(int width, long seed) {
+		try {
+			Object generator = (Object) NEW_ELLER_GENERATOR.invokeExact(width, width, seed);
+			Object checksum = (Object) NEW_ROW_CHECKSUM.invokeExact();
+			GENERATE_ROWS.invokeExact(generator, checksum);
+			return (long) CHECKSUM_VALUE.invokeExact(checksum);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Calls Maze.expandMaze on grid. */
+	static int[] expandMaze(Object grid, int[][] done, int[][] frontier, int[][] unexplored, int[] counts,
+			int[] lastExploredLocation, RandomGenerator random) {
+		try {
+			return (int[]) EXPAND_MAZE.invokeExact(grid, done, frontier, unexplored, counts, lastExploredLocation,
+					random);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Returns a new ParallelBreadthFirstSolver running on pool, which the caller shuts down. */
+	static Object newParallelSolver(ForkJoinPool pool) {
+		try {
+			return Class.forName("ParallelBreadthFirstSolver").getConstructor(ForkJoinPool.class).newInstance(pool);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/** Returns a new instance of the MazeSolver with the given class name. */
+	static Object newSolver(String className) {
+		try {
+			return Class.forName(className).getConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("No solver named " + className, e);
+		}
+	}
+
+	/** Solves grid with solver and returns the MazeSolution. */
+	static Object solve(Object solver, Object grid, int[] start, int[] goal) {
+		try {
+			return (Object) SOLVE.invokeExact(solver, grid, start, goal);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Returns the path of solution. */
+	static int[][] path(Object solution) {
+		try {
+			return (int[][]) PATH.invokeExact(solution);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+	}
+
+	/** Returns t as an unchecked exception, wrapping it if it is checked. */
+	static RuntimeException propagate(Throwable t) {
+		if (t instanceof RuntimeException) {
+			return (RuntimeException) t;
+		}
+		if (t instanceof Error) {
+			throw (Error) t;
+		}
+		return new IllegalStateException(t);
+	}
+}
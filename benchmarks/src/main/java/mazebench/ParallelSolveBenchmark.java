@@ -0,0 +1,75 @@
+package mazebench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of one corner-to-corner ParallelBreadthFirstSolver solve of a
+ * width x width maze, with pools of different sizes, to show how it scales
+ * with the number of cores. A parallelism of 0 runs BreadthFirstSolver for
+ * comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class ParallelSolveBenchmark {
+
+	@Param({ "4096", "16384" })
+	int width;
+
+	@Param({ "0", "1", "2", "4", "8" })
+	int parallelism;
+
+	Object grid;
+
+	ForkJoinPool pool;
+
+	Object solver;
+
+	int[] corner;
+
+	int[] farCorner;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		grid = Mazes.newGrid(width);
+		Mazes.generateParallel(Mazes.newParallelGenerator(), grid, 1L);
+		if (parallelism == 0) {
+			solver = Mazes.newSolver("BreadthFirstSolver");
+		} else {
+			pool = new ForkJoinPool(parallelism);
+			solver = Mazes.newParallelSolver(pool);
+		}
+		corner = new int[] { 0, 0 };
+		farCorner = new int[] { width - 1, width - 1 };
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	@Benchmark
+	public Object farGoal() {
+		return Mazes.solve(solver, grid, corner, farCorner);
+	}
+}
@@ -0,0 +1,73 @@
+package mazebench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of one solve in a fixed width x width maze, between the center and
+ * a goal NEAR_STEPS steps away, and between opposite corners.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+
+	/** How far along the maze's path the near goal is from the start. */
+	private static final int NEAR_STEPS = 20;
+
+	@Param({ "256", "1024", "4096" })
+	int width;
+
+	@Param({ "DepthFirstSolver", "BreadthFirstSolver", "AStarSolver", "BidirectionalSolver",
+			"ParallelBreadthFirstSolver" })
+	String solverName;
+
+	Object grid;
+
+	Object solver;
+
+	int[] center;
+
+	int[] nearGoal;
+
+	int[] corner;
+
+	int[] farCorner;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		grid = Mazes.newGrid(width);
+		Mazes.generate(grid, 1L);
+		solver = Mazes.newSolver(solverName);
+		center = new int[] { width / 2, width / 2 };
+		corner = new int[] { 0, 0 };
+		farCorner = new int[] { width - 1, width - 1 };
+		// Walk NEAR_STEPS along the way from the center to a corner
+		int[][] path = Mazes.path(Mazes.solve(Mazes.newSolver("BreadthFirstSolver"), grid, center, corner));
+		nearGoal = path[Math.min(NEAR_STEPS, path.length - 1)];
+	}
+
+	@Benchmark
+	public Object nearGoal() {
+		return Mazes.solve(solver, grid, center, nearGoal);
+	}
+
+	@Benchmark
+	public Object farGoal() {
+		return Mazes.solve(solver, grid, corner, farCorner);
+	}
+}